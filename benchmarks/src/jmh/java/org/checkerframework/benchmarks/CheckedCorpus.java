@@ -0,0 +1,271 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreeScanner;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * A fixed corpus of Java source files that has been parsed, attributed, and type-checked by one
+ * checker. After construction, the javac context is still alive, so the checker's type factory can
+ * be queried about any tree in the corpus.
+ *
+ * <p>The corpus is the directory named by the system property {@code
+ * checkerframework.benchmarks.corpus}, which defaults to {@code ../checker/tests/all-systems}.
+ */
+public final class CheckedCorpus {
+
+    /** The system property that names the directory containing the corpus. */
+    public static final String CORPUS_PROPERTY = "checkerframework.benchmarks.corpus";
+
+    /**
+     * The javac task that processed the corpus. This field keeps the javac context, and thus all
+     * trees and elements, reachable.
+     */
+    private final JavacTask task;
+
+    /** The checker that type-checked the corpus. */
+    public final BaseTypeChecker checker;
+
+    /** The compilation units of the corpus. */
+    public final List<CompilationUnitTree> compilationUnits;
+
+    /**
+     * Creates a corpus by running the given checker over all Java files in the corpus directory.
+     *
+     * @param checkerName the fully-qualified name of the checker to run
+     * @param checkerOptions additional "-A" options to pass to the checker
+     * @throws IOException if the corpus cannot be read
+     * @throws ReflectiveOperationException if the checker cannot be instantiated
+     */
+    public CheckedCorpus(String checkerName, String... checkerOptions)
+            throws IOException, ReflectiveOperationException {
+        this(
+                Paths.get(System.getProperty(CORPUS_PROPERTY, "../checker/tests/all-systems")),
+                checkerName,
+                checkerOptions);
+    }
+
+    /**
+     * Creates a corpus by running the given checker over all Java files in the given directory.
+     *
+     * @param corpus the directory containing the corpus
+     * @param checkerName the fully-qualified name of the checker to run
+     * @param checkerOptions additional "-A" options to pass to the checker
+     * @throws IOException if the corpus cannot be read
+     * @throws ReflectiveOperationException if the checker cannot be instantiated
+     */
+    public CheckedCorpus(Path corpus, String checkerName, String... checkerOptions)
+            throws IOException, ReflectiveOperationException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        Iterable<? extends JavaFileObject> sources =
+                fileManager.getJavaFileObjectsFromFiles(corpusFiles(corpus));
+
+        List<String> options = new ArrayList<>();
+        options.add("-proc:only");
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        options.addAll(Arrays.asList(checkerOptions));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        task =
+                (JavacTask)
+                        compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+        checker =
+                Class.forName(checkerName)
+                        .asSubclass(BaseTypeChecker.class)
+                        .getDeclaredConstructor()
+                        .newInstance();
+        task.setProcessors(Collections.singleton(checker));
+
+        List<CompilationUnitTree> units = new ArrayList<>();
+        for (CompilationUnitTree unit : task.parse()) {
+            units.add(unit);
+        }
+        compilationUnits = Collections.unmodifiableList(units);
+        task.analyze();
+
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            // Errors issued by the checker are expected; javac errors mean that the checker did
+            // not run, so the benchmark would not measure anything.
+            if (d.getKind() == Diagnostic.Kind.ERROR
+                    && !"compiler.err.proc.messager".equals(d.getCode())) {
+                throw new IllegalStateException("javac could not compile the corpus: " + d);
+            }
+        }
+    }
+
+    /**
+     * Returns the type factory of the checker that type-checked the corpus.
+     *
+     * @return the type factory of the checker that type-checked the corpus
+     */
+    public GenericAnnotatedTypeFactory<?, ?, ?, ?> getTypeFactory() {
+        return checker.getTypeFactory();
+    }
+
+    /**
+     * Returns the classes declared at the top level of the given compilation unit.
+     *
+     * @param unit a compilation unit
+     * @return the top-level classes of {@code unit}
+     */
+    public static List<ClassTree> topLevelClasses(CompilationUnitTree unit) {
+        List<ClassTree> classes = new ArrayList<>();
+        for (Tree decl : unit.getTypeDecls()) {
+            if (TreeUtils.isClassTree(decl)) {
+                classes.add((ClassTree) decl);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the expressions in the given compilation unit that compute a value, in the order of a
+     * pre-order traversal. Expressions that name a type, a package, or a method, and expressions
+     * within annotations, are omitted.
+     *
+     * @param unit a compilation unit
+     * @return the value-producing expressions in {@code unit}
+     */
+    public static List<ExpressionTree> expressions(CompilationUnitTree unit) {
+        List<ExpressionTree> result = new ArrayList<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void scan(Tree tree, Void p) {
+                if (tree != null && isValueExpression(tree)) {
+                    result.add((ExpressionTree) tree);
+                }
+                return super.scan(tree, p);
+            }
+
+            @Override
+            public Void visitAnnotation(AnnotationTree tree, Void p) {
+                return null;
+            }
+        }.scan(unit, null);
+        return result;
+    }
+
+    /**
+     * Returns true if the given tree is an expression that computes a value.
+     *
+     * @param tree a tree
+     * @return true if {@code tree} is an expression that computes a value
+     */
+    private static boolean isValueExpression(Tree tree) {
+        switch (tree.getKind()) {
+            case METHOD_INVOCATION:
+            case NEW_CLASS:
+            case NEW_ARRAY:
+            case ASSIGNMENT:
+            case CONDITIONAL_EXPRESSION:
+            case TYPE_CAST:
+            case ARRAY_ACCESS:
+                return true;
+            case IDENTIFIER:
+            case MEMBER_SELECT:
+                return TreeUtils.elementFromUse((ExpressionTree) tree) instanceof VariableElement;
+            default:
+                return tree instanceof BinaryTree
+                        || tree instanceof UnaryTree
+                        || tree instanceof CompoundAssignmentTree
+                        || tree instanceof LiteralTree;
+        }
+    }
+
+    /**
+     * Returns all variable declarations with an initializer in the given compilation unit.
+     *
+     * @param unit a compilation unit
+     * @return all variable declarations with an initializer in {@code unit}
+     */
+    public static List<VariableTree> initializedVariables(CompilationUnitTree unit) {
+        List<VariableTree> result = new ArrayList<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitVariable(VariableTree tree, Void p) {
+                if (tree.getInitializer() != null) {
+                    result.add(tree);
+                }
+                return super.visitVariable(tree, p);
+            }
+        }.scan(unit, null);
+        return result;
+    }
+
+    /**
+     * Returns all methods with a body in the given class and its nested classes, but not methods of
+     * local or anonymous classes.
+     *
+     * @param classTree a class
+     * @return all methods with a body in {@code classTree}
+     */
+    public static List<CFGMethod> methodsWithBody(ClassTree classTree) {
+        List<CFGMethod> result = new ArrayList<>();
+        for (Tree member : classTree.getMembers()) {
+            if (member.getKind() == Tree.Kind.METHOD) {
+                MethodTree method = (MethodTree) member;
+                if (method.getBody() != null) {
+                    result.add(new CFGMethod(method, classTree));
+                }
+            } else if (TreeUtils.isClassTree(member)) {
+                result.addAll(methodsWithBody((ClassTree) member));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Java files in the given directory, in a deterministic order.
+     *
+     * @param corpus the directory containing the corpus
+     * @return the Java files in {@code corpus}
+     * @throws IOException if the corpus directory cannot be read
+     */
+    private static List<File> corpusFiles(Path corpus) throws IOException {
+        if (!Files.isDirectory(corpus)) {
+            throw new IOException("Corpus directory does not exist: " + corpus.toAbsolutePath());
+        }
+        try (Stream<Path> paths = Files.walk(corpus)) {
+            return paths.filter(p -> p.toString().endsWith(".java"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.processing.ProcessingEnvironment;
+import org.checkerframework.dataflow.analysis.Store;
+import org.checkerframework.dataflow.analysis.TransferResult;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.dataflow.cfg.node.ReturnNode;
+import org.checkerframework.framework.flow.CFCFGBuilder;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.javacutil.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for control-flow graph construction, for the dataflow analysis, and for {@link
+ * Store#leastUpperBound}, over the methods in the benchmark corpus (see {@link
+ * CheckedCorpus}).
+ *
+ * <p>{@link #performFlowAnalysis} builds the control-flow graphs and then analyzes them, so the
+ * difference between its score and the score of {@link #buildCFGs} approximates the time spent in
+ * the analysis itself.
+ *
+ * <p>The default checker has no subcheckers, so control-flow graphs are never shared between
+ * checkers and each benchmark iteration really builds them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataflowBenchmarks {
+
+    /** The checker to benchmark. */
+    @Param({"org.checkerframework.common.value.ValueChecker"})
+    public String checkerName;
+
+    /** The type-checked corpus. */
+    private CheckedCorpus corpus;
+
+    /** The type factory of {@link #corpus}. */
+    private GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+
+    /** Pairs of stores at the exits of the same method; element i is paired with element i+1. */
+    @SuppressWarnings("rawtypes") // the store type is only known at run time
+    private final List<Store> storePairs = new ArrayList<>();
+
+    /**
+     * Type-checks the corpus and collects the stores to use in the benchmarks.
+     *
+     * @throws Exception if the corpus cannot be type-checked
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        corpus = new CheckedCorpus(checkerName);
+        factory = corpus.getTypeFactory();
+
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                factory.preProcessClassTree(classTree);
+                for (CFGMethod method : CheckedCorpus.methodsWithBody(classTree)) {
+                    Store<?> exitStore = factory.getRegularExitStore(method.getMethod());
+                    if (exitStore == null) {
+                        continue;
+                    }
+                    for (Pair<ReturnNode, ? extends TransferResult<?, ?>> returnStore :
+                            factory.getReturnStatementStores(method.getMethod())) {
+                        if (returnStore.second != null) {
+                            storePairs.add(exitStore);
+                            storePairs.add(returnStore.second.getRegularStore());
+                        }
+                    }
+                    Store<?> exceptionalExitStore =
+                            factory.getExceptionalExitStore(method.getMethod());
+                    if (exceptionalExitStore != null) {
+                        storePairs.add(exitStore);
+                        storePairs.add(exceptionalExitStore);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the control-flow graph of every method in the corpus.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void buildCFGs(Blackhole bh) {
+        ProcessingEnvironment env = corpus.checker.getProcessingEnvironment();
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                for (CFGMethod method : CheckedCorpus.methodsWithBody(classTree)) {
+                    bh.consume(CFCFGBuilder.build(unit, method, corpus.checker, factory, env));
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs the dataflow analysis of every class in the corpus, including the construction of
+     * the control-flow graphs.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void performFlowAnalysis(Blackhole bh) {
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            // Setting the root discards the dataflow results of the previous iteration.
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                factory.preProcessClassTree(classTree);
+                bh.consume(factory.getRegularExitStore(classTree));
+            }
+        }
+    }
+
+    /**
+     * Computes the least upper bound of the regular exit store of each method in the corpus with
+     * each of its return statement stores and with its exceptional exit store.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked") // the stores of a pair come from the same analysis
+    public void storeLeastUpperBound(Blackhole bh) {
+        for (int i = 0; i < storePairs.size(); i += 2) {
+            bh.consume(storePairs.get(i).leastUpperBound(storePairs.get(i + 1)));
+        }
+    }
+}
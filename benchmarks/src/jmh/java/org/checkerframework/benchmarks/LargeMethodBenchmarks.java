@@ -0,0 +1,112 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the dataflow analysis of a single generated method with many local variables and
+ * many branches. The stores of such a method are large and are copied at every block boundary, so
+ * this benchmark measures the cost of copying and joining stores much more directly than {@link
+ * DataflowBenchmarks}, whose corpus consists of small methods.
+ *
+ * <p>To compare two implementations of the store, run this benchmark on each of them and compare
+ * the results, for example with {@code -Pbenchmarks=LargeMethodBenchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargeMethodBenchmarks {
+
+    /** The checker to benchmark. */
+    @Param({"org.checkerframework.common.value.ValueChecker"})
+    public String checkerName;
+
+    /** The number of local variables, and of if statements, in the generated method. */
+    @Param({"100", "500"})
+    public int methodLength;
+
+    /** The type-checked corpus, which consists of the generated class. */
+    private CheckedCorpus corpus;
+
+    /** The type factory of {@link #corpus}. */
+    private GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+
+    /**
+     * Generates the class with the large method and type-checks it.
+     *
+     * @throws Exception if the class cannot be written or type-checked
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Path directory = Files.createTempDirectory("large-method-corpus");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve("LargeMethod.java");
+        Files.write(file, generateClass(methodLength).getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        corpus = new CheckedCorpus(directory, checkerName);
+        factory = corpus.getTypeFactory();
+    }
+
+    /**
+     * Returns the source code of a class with one method that declares {@code length} local
+     * variables and then refines and reassigns them in {@code length} if statements.
+     *
+     * @param length the number of local variables and of if statements
+     * @return the source code of the generated class
+     */
+    static String generateClass(int length) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class LargeMethod {\n");
+        sb.append("  int f;\n");
+        sb.append("  int m(int p, String s) {\n");
+        for (int i = 0; i < length; i++) {
+            sb.append("    int x").append(i).append(" = p + ").append(i).append(";\n");
+        }
+        for (int i = 0; i < length; i++) {
+            int prev = i == 0 ? length - 1 : i - 1;
+            sb.append("    if (x").append(i).append(" > ").append(i % 7).append(") {\n");
+            sb.append("      x").append(prev).append(" = ").append(i).append(";\n");
+            sb.append("      f = s.length();\n");
+            sb.append("    } else {\n");
+            sb.append("      x").append(i).append(" = x").append(prev).append(" + 1;\n");
+            sb.append("    }\n");
+        }
+        sb.append("    return x0 + f;\n");
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Performs the dataflow analysis of the generated class, including the construction of the
+     * control-flow graph.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void performFlowAnalysis(Blackhole bh) {
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            // Setting the root discards the dataflow results of the previous iteration.
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                factory.preProcessClassTree(classTree);
+                bh.consume(factory.getRegularExitStore(classTree));
+            }
+        }
+    }
+}
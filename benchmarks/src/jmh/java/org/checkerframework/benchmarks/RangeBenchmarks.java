@@ -0,0 +1,112 @@
+package org.checkerframework.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.common.value.util.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the arithmetic of {@link Range}, which the Constant Value Checker performs for
+ * every arithmetic expression on every iteration of the dataflow analysis. Unlike the other
+ * benchmarks, these do not type-check a corpus.
+ *
+ * <p>The operands are a mix of small ranges, ranges of {@code int} values, and ranges of {@code
+ * long} values, so that both the common case and the case in which a bound overflows are
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeBenchmarks {
+
+    /** The operands of the benchmarked operations. */
+    private Range[] operands;
+
+    /** Creates the operands. */
+    @Setup(Level.Trial)
+    public void setup() {
+        long[] bounds = {
+            Long.MIN_VALUE,
+            Integer.MIN_VALUE - 10L,
+            Integer.MIN_VALUE,
+            -1000,
+            -1,
+            0,
+            1,
+            10,
+            1000,
+            Integer.MAX_VALUE,
+            Integer.MAX_VALUE + 10L,
+            Long.MAX_VALUE
+        };
+        int count = 0;
+        operands = new Range[bounds.length * (bounds.length + 1) / 2];
+        for (int i = 0; i < bounds.length; i++) {
+            for (int j = i; j < bounds.length; j++) {
+                operands[count++] = Range.create(bounds[i], bounds[j]);
+            }
+        }
+    }
+
+    /**
+     * Adds every pair of operands.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void plus(Blackhole bh) {
+        for (Range left : operands) {
+            for (Range right : operands) {
+                bh.consume(left.plus(right));
+            }
+        }
+    }
+
+    /**
+     * Multiplies every pair of operands.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void times(Blackhole bh) {
+        for (Range left : operands) {
+            for (Range right : operands) {
+                bh.consume(left.times(right));
+            }
+        }
+    }
+
+    /**
+     * Computes the union of every pair of operands, as the join of two stores does.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void union(Blackhole bh) {
+        for (Range left : operands) {
+            for (Range right : operands) {
+                bh.consume(left.union(right));
+            }
+        }
+    }
+
+    /**
+     * Checks whether each operand is wider than the maximum number of values in a {@code @IntVal}
+     * annotation, as the Constant Value Checker does before it creates an annotation.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void isWiderThan(Blackhole bh) {
+        for (Range range : operands) {
+            bh.consume(range.isWiderThan(10));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.VariableTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.AnnotationMirrorSet;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link GenericAnnotatedTypeFactory#getAnnotatedType}, {@link
+ * TypeHierarchy#isSubtype}, and {@link QualifierHierarchy#leastUpperBound}, over the types that
+ * occur in the benchmark corpus (see {@link CheckedCorpus}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TypeFactoryBenchmarks {
+
+    /** The checker to benchmark. */
+    @Param({"org.checkerframework.checker.nullness.NullnessChecker"})
+    public String checkerName;
+
+    /** The type-checked corpus. */
+    private CheckedCorpus corpus;
+
+    /** The type factory of {@link #corpus}. */
+    private GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+
+    /** The types of variable initializers, parallel to {@link #variableTypes}. */
+    private final List<AnnotatedTypeMirror> initializerTypes = new ArrayList<>();
+
+    /** The declared types of variables, parallel to {@link #initializerTypes}. */
+    private final List<AnnotatedTypeMirror> variableTypes = new ArrayList<>();
+
+    /** Pairs of qualifiers in the same hierarchy; element i is paired with element i+1. */
+    private final List<AnnotationMirror> qualifierPairs = new ArrayList<>();
+
+    /**
+     * Type-checks the corpus and collects the types and qualifiers to use in the benchmarks.
+     *
+     * @throws Exception if the corpus cannot be type-checked
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // Disable the type factory caches so that the benchmarks measure the computation, not
+        // cache lookups.
+        corpus = new CheckedCorpus(checkerName, "-AatfDoNotCache");
+        factory = corpus.getTypeFactory();
+
+        AnnotationMirrorSet qualifiers = new AnnotationMirrorSet();
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                factory.getAnnotatedType(classTree);
+            }
+            for (VariableTree variable : CheckedCorpus.initializedVariables(unit)) {
+                AnnotatedTypeMirror initializerType =
+                        factory.getAnnotatedType(variable.getInitializer());
+                AnnotatedTypeMirror variableType = factory.getAnnotatedType(variable);
+                initializerTypes.add(initializerType);
+                variableTypes.add(variableType);
+                qualifiers.addAll(initializerType.getAnnotations());
+                qualifiers.addAll(variableType.getAnnotations());
+            }
+        }
+
+        QualifierHierarchy qualifierHierarchy = factory.getQualifierHierarchy();
+        for (AnnotationMirror a1 : qualifiers) {
+            AnnotationMirror top = qualifierHierarchy.getTopAnnotation(a1);
+            for (AnnotationMirror a2 : qualifiers) {
+                if (AnnotationUtils.areSame(top, qualifierHierarchy.getTopAnnotation(a2))) {
+                    qualifierPairs.add(a1);
+                    qualifierPairs.add(a2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the type of every expression in the corpus, including the dataflow analysis of
+     * every class.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void getAnnotatedType(Blackhole bh) {
+        for (CompilationUnitTree unit : corpus.compilationUnits) {
+            // Setting the root discards the dataflow results of the previous compilation unit.
+            factory.setRoot(unit);
+            for (ClassTree classTree : CheckedCorpus.topLevelClasses(unit)) {
+                bh.consume(factory.getAnnotatedType(classTree));
+            }
+            for (ExpressionTree expression : CheckedCorpus.expressions(unit)) {
+                bh.consume(factory.getAnnotatedType(expression));
+            }
+        }
+    }
+
+    /**
+     * Checks that each variable initializer in the corpus is a subtype of the variable's declared
+     * type.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void isSubtype(Blackhole bh) {
+        TypeHierarchy typeHierarchy = factory.getTypeHierarchy();
+        for (int i = 0; i < initializerTypes.size(); i++) {
+            bh.consume(typeHierarchy.isSubtype(initializerTypes.get(i), variableTypes.get(i)));
+        }
+    }
+
+    /**
+     * Computes the least upper bound of every pair of qualifiers in the same hierarchy that occur
+     * in the corpus.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void leastUpperBound(Blackhole bh) {
+        QualifierHierarchy qualifierHierarchy = factory.getQualifierHierarchy();
+        for (int i = 0; i < qualifierPairs.size(); i += 2) {
+            bh.consume(
+                    qualifierHierarchy.leastUpperBound(
+                            qualifierPairs.get(i), qualifierPairs.get(i + 1)));
+        }
+    }
+}
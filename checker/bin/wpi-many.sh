@@ -10,7 +10,7 @@ DEBUG=0
 # To enable debugging, uncomment the following line.
 # DEBUG=1
 
-while getopts "o:i:u:t:g:" opt; do
+while getopts "o:i:u:t:g:j:" opt; do
   case $opt in
     o) OUTDIR="$OPTARG"
        ;;
@@ -22,6 +22,8 @@ while getopts "o:i:u:t:g:" opt; do
        ;;
     g) GRADLECACHEDIR="$OPTARG"
        ;;
+    j) JOBS="$OPTARG"
+       ;;
     \?) # the remainder of the arguments will be passed to DLJC directly
        ;;
   esac
@@ -111,6 +113,15 @@ if [ "x${GRADLECACHEDIR}" = "x" ]; then
   GRADLECACHEDIR=".gradle"
 fi
 
+if [ "x${JOBS}" = "x" ]; then
+  JOBS=1
+fi
+
+if ! [ "${JOBS}" -ge 1 ] 2>/dev/null; then
+    echo "The argument to -j must be a positive integer, but it was ${JOBS}."
+    exit 6
+fi
+
 JAVA_HOME_BACKUP="${JAVA_HOME}"
 export JAVA_HOME="${JAVA11_HOME}"
 
@@ -127,9 +138,18 @@ mkdir -p "${OUTDIR}-results"
 
 cd "${OUTDIR}" || exit 5
 
-while IFS='' read -r line || [ "$line" ]
-do
-    REPOHASH=${line}
+if [ "${JOBS}" -gt 1 ]; then
+    # Clone or update DLJC once, rather than in each concurrent run of wpi.sh,
+    # so that the runs do not race to update the same clone.
+    "${SCRIPTDIR}"/../bin-devel/.plume-scripts/git-clone-related kelloggm do-like-javac "${SCRIPTDIR}"/.do-like-javac
+    export WPI_SKIP_DLJC_UPDATE=1
+fi
+
+# Runs whole-program inference on one project.
+# The argument is one line of the input file; the remaining arguments are passed to dljc.
+function process_project() {
+    REPOHASH=$1
+    shift
 
     REPO=$(echo "${REPOHASH}" | awk '{print $1}')
     HASH=$(echo "${REPOHASH}" | awk '{print $2}')
@@ -171,7 +191,7 @@ do
         # Skip the rest of the loop and move on to the next project
         # if the checkout isn't successful.
         if [ ! -d "${REPO_NAME}" ]; then
-           continue
+           return
         fi
     else
         rm -rf "${REPO_NAME}/dljc-out"
@@ -203,8 +223,10 @@ do
     RESULT_LOG="${OUTDIR}-results/${REPO_NAME_HASH}-wpi.log"
     touch "${RESULT_LOG}"
 
-    /bin/bash -x "${SCRIPTDIR}/wpi.sh" -d "${REPO_FULLPATH}" -t "${TIMEOUT}" -g "${GRADLECACHEDIR}" -- "$@" &> "${RESULT_LOG}" &> "${OUTDIR}-results/wpi-out" || cat "${OUTDIR}-results/wpi-out"
-    rm -f "${OUTDIR}-results/wpi-out"
+    # The output file is per project, because projects may be processed concurrently.
+    WPI_OUT="${OUTDIR}-results/${REPO_NAME_HASH}-wpi-out"
+    /bin/bash -x "${SCRIPTDIR}/wpi.sh" -d "${REPO_FULLPATH}" -t "${TIMEOUT}" -g "${GRADLECACHEDIR}" -- "$@" &> "${WPI_OUT}" || cat "${WPI_OUT}"
+    rm -f "${WPI_OUT}"
 
     cd "${OUTDIR}" || exit 5
 
@@ -233,9 +255,23 @@ do
     fi
 
     cd "${OUTDIR}" || exit 5
+}
 
+while IFS='' read -r line || [ "$line" ]
+do
+    if [ "${JOBS}" -gt 1 ]; then
+        # Wait until fewer than JOBS projects are being processed.
+        while [ "$(jobs -rp | wc -l)" -ge "${JOBS}" ]; do
+            sleep 1
+        done
+        process_project "${line}" "$@" &
+    else
+        process_project "${line}" "$@"
+    fi
 done <"${INLIST}"
 
+wait
+
 ## This section is here rather than in wpi-summary.sh because counting lines can be moderately expensive.
 ## wpi-summary.sh is intended to be run while a human waits (unlike this script), so this script
 ## precomputes as much as it can, to make wpi-summary.sh faster.
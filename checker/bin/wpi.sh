@@ -213,8 +213,10 @@ function configure_and_exec_dljc {
 SCRIPTDIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" >/dev/null 2>&1 && pwd )"
 
 
-# clone or update DLJC
-"${SCRIPTDIR}"/../bin-devel/.plume-scripts/git-clone-related kelloggm do-like-javac "${SCRIPTDIR}"/.do-like-javac
+# clone or update DLJC, unless wpi-many.sh has already done so
+if [ "x${WPI_SKIP_DLJC_UPDATE}" = "x" ]; then
+  "${SCRIPTDIR}"/../bin-devel/.plume-scripts/git-clone-related kelloggm do-like-javac "${SCRIPTDIR}"/.do-like-javac
+fi
 DLJC="${SCRIPTDIR}/.do-like-javac/dljc"
 
 #### Main script
@@ -0,0 +1,60 @@
+/*
+ * @test
+ * @summary Test that -AreleaseFlowResults does not discard dataflow results that are still needed,
+ *     both for a checker with subcheckers and for a checker without subcheckers.
+ *
+ * @compile -XDrawDiagnostics -Werror -processor org.checkerframework.checker.nullness.NullnessChecker -AreleaseFlowResults ReleaseFlowResults.java
+ * @compile -XDrawDiagnostics -Werror -processor org.checkerframework.common.value.ValueChecker -AreleaseFlowResults ReleaseFlowResults.java
+ */
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+class ReleaseFlowResults {
+
+    @Nullable Object f;
+
+    ReleaseFlowResults(@Nullable Object o) {
+        if (o != null) {
+            f = o.toString();
+        }
+    }
+
+    void m1(@Nullable Object o) {
+        if (o != null) {
+            o.toString();
+        }
+    }
+
+    void m2() {
+        if (f != null) {
+            f.toString();
+        }
+    }
+
+    Runnable m3(@Nullable Object o) {
+        if (o == null) {
+            return () -> {};
+        }
+        return () -> o.toString();
+    }
+
+    @IntRange(from = 5, to = 7) int m4(boolean b) {
+        int x = 5;
+        if (b) {
+            x = 7;
+        }
+        return x;
+    }
+}
+
+class ReleaseFlowResults2 {
+
+    int m(@Nullable String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    @IntRange(from = 0, to = 1) int m2(boolean b) {
+        return b ? 1 : 0;
+    }
+}
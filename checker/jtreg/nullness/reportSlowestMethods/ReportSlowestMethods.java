@@ -0,0 +1,125 @@
+/*
+ * @test
+ * @summary Test that -AreportSlowestMethods reports the slowest dataflow analyses, both for a
+ *     checker with subcheckers and for a checker without subcheckers.
+ *
+ * @compile ReportSlowestMethods.java
+ * @run main ReportSlowestMethods
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles Test.java with {@code -AreportSlowestMethods} and compares the report with
+ * ReportSlowestMethods.out. The times and the statistics of each analysis vary from run to run, so
+ * they are replaced by "#", and the analyses are sorted by location rather than by time.
+ */
+public class ReportSlowestMethods {
+
+    public static void main(String[] args) throws IOException {
+        File testSrc = new File(System.getProperty("test.src", "."));
+        File testFile = new File(testSrc, "Test.java");
+
+        List<String> report =
+                report(testFile, "org.checkerframework.checker.nullness.NullnessChecker", "20");
+        List<String> expected =
+                Files.readAllLines(
+                        new File(testSrc, "ReportSlowestMethods.out").toPath(),
+                        StandardCharsets.UTF_8);
+        if (!report.equals(expected)) {
+            throw new Error(
+                    "Unexpected report."
+                            + System.lineSeparator()
+                            + "Expected:"
+                            + System.lineSeparator()
+                            + String.join(System.lineSeparator(), expected)
+                            + System.lineSeparator()
+                            + "Found:"
+                            + System.lineSeparator()
+                            + String.join(System.lineSeparator(), report));
+        }
+
+        // A checker without subcheckers reports no more analyses than requested.
+        report = report(testFile, "org.checkerframework.common.value.ValueChecker", "2");
+        if (report.size() != 3 || !report.get(0).equals("The 2 slowest dataflow analyses:")) {
+            throw new Error("Unexpected report: " + report);
+        }
+        for (String line : report.subList(1, report.size())) {
+            if (!line.contains(", ValueChecker, ")) {
+                throw new Error("Unexpected line in report: " + line);
+            }
+        }
+    }
+
+    /**
+     * Compiles the given file with the given checker and {@code -AreportSlowestMethods}, and
+     * returns the normalized report.
+     *
+     * @param testFile the file to compile
+     * @param processor the fully-qualified name of the checker
+     * @param limit the value of {@code -AreportSlowestMethods}
+     * @return the lines of the report: the first line, then the analyses in sorted order, without
+     *     indentation, with the file name replaced by its last component, and with every
+     *     measurement replaced by "#"
+     */
+    private static List<String> report(File testFile, String processor, String limit) {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = javac.getStandardFileManager(null, null, null);
+        boolean success =
+                javac.getTask(
+                                null,
+                                fileManager,
+                                diagnostics,
+                                Arrays.asList(
+                                        "-proc:only",
+                                        "-processor",
+                                        processor,
+                                        "-AreportSlowestMethods=" + limit),
+                                null,
+                                fileManager.getJavaFileObjects(testFile))
+                        .call();
+        if (!success) {
+            throw new Error("Compilation failed: " + diagnostics.getDiagnostics());
+        }
+
+        String message = null;
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.NOTE
+                    && d.getMessage(null).contains("slowest dataflow analyses")) {
+                message = d.getMessage(null);
+            }
+        }
+        if (message == null) {
+            throw new Error("No report: " + diagnostics.getDiagnostics());
+        }
+
+        List<String> lines = new ArrayList<>(Arrays.asList(message.split("\\R")));
+        for (int i = 1; i < lines.size(); i++) {
+            lines.set(
+                    i,
+                    lines.get(i)
+                            .trim()
+                            .replace(testFile.getPath(), testFile.getName())
+                            .replaceAll("\\d+ ms", "# ms")
+                            .replaceAll("\\d+ block analyses", "# block analyses")
+                            .replaceAll("\\d+ widenings", "# widenings")
+                            .replaceAll("largest store \\d+", "largest store #"));
+        }
+        Collections.sort(lines.subList(1, lines.size()));
+        return lines;
+    }
+}
@@ -0,0 +1,32 @@
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+class Test {
+
+    @Nullable Object f = null;
+
+    static int counter;
+
+    static {
+        counter = 1;
+    }
+
+    Test() {}
+
+    int loop(int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                sum += i * j;
+            }
+        }
+        return sum;
+    }
+
+    Runnable lambda(@Nullable Object o) {
+        return () -> {
+            if (o != null) {
+                o.toString();
+            }
+        };
+    }
+}
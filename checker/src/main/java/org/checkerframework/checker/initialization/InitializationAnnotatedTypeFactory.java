@@ -52,7 +52,9 @@ import org.checkerframework.framework.type.treeannotator.ListTreeAnnotator;
 import org.checkerframework.framework.type.treeannotator.TreeAnnotator;
 import org.checkerframework.framework.type.typeannotator.ListTypeAnnotator;
 import org.checkerframework.framework.type.typeannotator.TypeAnnotator;
+import org.checkerframework.framework.util.BitSetQualifierKindHierarchy;
 import org.checkerframework.framework.util.QualifierKind;
+import org.checkerframework.framework.util.QualifierKindHierarchy;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ElementUtils;
@@ -838,6 +840,15 @@ public abstract class InitializationAnnotatedTypeFactory<
             UNDER_INIT = getQualifierKind(UNDER_INITALIZATION);
         }
 
+        @Override
+        protected QualifierKindHierarchy createQualifierKindHierarchy(
+                @UnderInitialization InitializationQualifierHierarchy this,
+                Collection<Class<? extends Annotation>> qualifierClasses) {
+            // Subtyping and lubs are queried very often by the Nullness Checker and its
+            // subcheckers, so use constant-time table lookups.
+            return new BitSetQualifierKindHierarchy(qualifierClasses);
+        }
+
         /**
          * Subtype testing for initialization annotations. Will return false if either qualifier is
          * not an initialization annotation. Subclasses should override isSubtype and call this
@@ -0,0 +1,65 @@
+import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
+import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// The same expression strings are written in different contexts.  Each string is parsed once, but
+// what it refers to depends on the context in which it is used.
+public class ParsedExpressionCache {
+
+    static class A {
+        @Nullable Object f;
+
+        @EnsuresNonNull("f")
+        void init() {
+            f = new Object();
+        }
+    }
+
+    static class B {
+        @Nullable String f;
+        @Nullable String g;
+
+        @EnsuresNonNull("f")
+        void init() {
+            f = "f";
+        }
+
+        @EnsuresNonNull("f")
+        // :: error: (contracts.postcondition.not.satisfied)
+        void initWrongly() {
+            g = "g";
+        }
+    }
+
+    @EnsuresNonNullIf(expression = "#1", result = true)
+    static boolean first(@Nullable Object x, @Nullable Object y) {
+        return x != null;
+    }
+
+    @EnsuresNonNullIf(expression = "#1", result = true)
+    static boolean second(@Nullable Object y, @Nullable Object x) {
+        return y != null;
+    }
+
+    void useFields(A a, B b) {
+        a.init();
+        a.f.toString();
+        b.init();
+        b.f.length();
+        // :: error: (dereference.of.nullable)
+        b.g.length();
+    }
+
+    void useParameters(@Nullable Object p, @Nullable Object q) {
+        if (first(p, q)) {
+            p.toString();
+            // :: error: (dereference.of.nullable)
+            q.toString();
+        }
+        if (second(q, p)) {
+            q.toString();
+            // :: error: (dereference.of.nullable)
+            p.toString();
+        }
+    }
+}
@@ -3,13 +3,14 @@ package org.checkerframework.dataflow.analysis;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.StringJoiner;
 import javax.lang.model.element.Element;
 import org.checkerframework.checker.interning.qual.FindDistinct;
 import org.checkerframework.checker.interning.qual.InternedDistinct;
@@ -90,6 +91,12 @@ public abstract class AbstractAnalysis<
     /** The current transfer input when the analysis is running. */
     protected @Nullable TransferInput<V, S> currentInput;
 
+    /** The number of times a basic block was analyzed during the last run of the analysis. */
+    protected int blockAnalysisCount = 0;
+
+    /** The number of times a store was widened during the last run of the analysis. */
+    protected int wideningCount = 0;
+
     /**
      * Returns the tree that is currently being looked at. The transfer function can set this tree
      * to make sure that calls to {@code getValue} will not return information for this given tree.
@@ -379,9 +386,31 @@ public abstract class AbstractAnalysis<
         inputs.clear();
         nodeValues.clear();
         finalLocalValues.clear();
+        blockAnalysisCount = 0;
+        wideningCount = 0;
         this.cfg = cfg;
     }
 
+    /**
+     * Returns the number of times a basic block was analyzed during the last run of the analysis.
+     * A block is analyzed once per iteration of the fix-point computation in which its input
+     * changed.
+     *
+     * @return the number of times a basic block was analyzed during the last run of the analysis
+     */
+    public int getBlockAnalysisCount() {
+        return blockAnalysisCount;
+    }
+
+    /**
+     * Returns the number of times a store was widened during the last run of the analysis.
+     *
+     * @return the number of times a store was widened during the last run of the analysis
+     */
+    public int getWideningCount() {
+        return wideningCount;
+    }
+
     /**
      * Updates the value of node {@code node} to the value of the {@code transferResult}. Returns
      * true if the node's value changed, or a store was updated.
@@ -421,47 +450,35 @@ public abstract class AbstractAnalysis<
      * @param b the block to add to {@link #worklist}
      */
     protected void addToWorklist(Block b) {
-        // TODO: use a more efficient way to check if b is already present
-        if (!worklist.contains(b)) {
-            worklist.add(b);
-        }
+        worklist.add(b);
     }
 
     /**
      * A worklist is a priority queue of blocks in which the order is given by depth-first ordering
      * to place non-loop predecessors ahead of successors.
+     *
+     * <p>The blocks of the control flow graph are numbered densely by their depth-first order when
+     * the graph is processed, and the worklist is a bit set indexed by these numbers. Adding a
+     * block and testing whether a block is in the worklist take constant time, and polling scans
+     * the bit set from the first block (forward analysis) or from the last block (backward
+     * analysis) in depth-first order.
      */
     protected static class Worklist {
 
-        /** Map all blocks in the CFG to their depth-first order. */
+        /** Map all blocks in the CFG to their depth-first order. The first block is numbered 1. */
         protected final IdentityHashMap<Block, Integer> depthFirstOrder;
 
-        /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * forward analysis.
-         */
-        public class ForwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b1) - depthFirstOrder.get(b2);
-            }
-        }
+        /** The direction of the analysis. */
+        protected final Direction direction;
 
         /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * backward analysis.
+         * All blocks in the CFG, indexed by their depth-first order. Element 0 is unused, so that
+         * the indexes agree with {@link #depthFirstOrder}.
          */
-        public class BackwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b2) - depthFirstOrder.get(b1);
-            }
-        }
+        protected @Nullable Block[] blocks;
 
-        /** The backing priority queue. */
-        protected final PriorityQueue<Block> queue;
+        /** The depth-first orders of the blocks in the worklist. */
+        protected final BitSet queue;
 
         /**
          * Create a Worklist.
@@ -469,15 +486,13 @@ public abstract class AbstractAnalysis<
          * @param direction the direction (forward or backward)
          */
         public Worklist(Direction direction) {
-            depthFirstOrder = new IdentityHashMap<>();
-
-            if (direction == Direction.FORWARD) {
-                queue = new PriorityQueue<>(11, new ForwardDFOComparator());
-            } else if (direction == Direction.BACKWARD) {
-                queue = new PriorityQueue<>(11, new BackwardDFOComparator());
-            } else {
+            if (direction != Direction.FORWARD && direction != Direction.BACKWARD) {
                 throw new BugInCF("Unexpected Direction meet: " + direction.name());
             }
+            this.direction = direction;
+            this.depthFirstOrder = new IdentityHashMap<>();
+            this.blocks = new Block[0];
+            this.queue = new BitSet();
         }
 
         /**
@@ -487,8 +502,11 @@ public abstract class AbstractAnalysis<
          */
         public void process(ControlFlowGraph cfg) {
             depthFirstOrder.clear();
+            List<Block> dfoBlocks = cfg.getDepthFirstOrderedBlocks();
+            blocks = new Block[dfoBlocks.size() + 1];
             int count = 1;
-            for (Block b : cfg.getDepthFirstOrderedBlocks()) {
+            for (Block b : dfoBlocks) {
+                blocks[count] = b;
                 depthFirstOrder.put(b, count++);
             }
 
@@ -496,9 +514,22 @@ public abstract class AbstractAnalysis<
         }
 
         /**
-         * See {@link PriorityQueue#isEmpty}.
+         * Returns the depth-first order of the given block.
+         *
+         * @param block a block of the processed control flow graph
+         * @return the depth-first order of {@code block}
+         */
+        private int indexOf(Block block) {
+            Integer index = depthFirstOrder.get(block);
+            if (index == null) {
+                throw new BugInCF("Block is not in the control flow graph: " + block);
+            }
+            return index;
+        }
+
+        /**
+         * Returns true if the worklist is empty.
          *
-         * @see PriorityQueue#isEmpty
          * @return true if {@link #queue} is empty else false
          */
         @Pure
@@ -515,32 +546,46 @@ public abstract class AbstractAnalysis<
          * @return true if {@link #queue} contains the given block
          */
         public boolean contains(Block block) {
-            return queue.contains(block);
+            Integer index = depthFirstOrder.get(block);
+            return index != null && queue.get(index);
         }
 
         /**
-         * Add the given block to {@link #queue}.
+         * Add the given block to {@link #queue}. If the block is already present, this method does
+         * nothing.
          *
          * @param block the block to add to {@link #queue}
          */
         public void add(Block block) {
-            queue.add(block);
+            queue.set(indexOf(block));
         }
 
         /**
-         * See {@link PriorityQueue#poll}.
+         * Removes and returns the block in the worklist that comes first in depth-first order (in a
+         * forward analysis) or last in depth-first order (in a backward analysis).
          *
-         * @see PriorityQueue#poll
-         * @return the head of {@link #queue}
+         * @return the removed block, or null if the worklist is empty
          */
         @Pure
         public @Nullable Block poll() {
-            return queue.poll();
+            int index =
+                    direction == Direction.FORWARD
+                            ? queue.nextSetBit(0)
+                            : queue.previousSetBit(blocks.length - 1);
+            if (index < 0) {
+                return null;
+            }
+            queue.clear(index);
+            return blocks[index];
         }
 
         @Override
         public String toString() {
-            return "Worklist(" + queue + ")";
+            StringJoiner result = new StringJoiner(", ", "Worklist([", "])");
+            for (int i = queue.nextSetBit(0); i >= 0; i = queue.nextSetBit(i + 1)) {
+                result.add(String.valueOf(blocks[i]));
+            }
+            return result.toString();
         }
     }
 }
@@ -2,6 +2,7 @@ package org.checkerframework.dataflow.analysis;
 
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -11,6 +12,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import javax.lang.model.element.Element;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
 import org.checkerframework.dataflow.cfg.node.AssignmentNode;
@@ -146,6 +148,43 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
         finalLocalValues.putAll(other.finalLocalValues);
     }
 
+    /**
+     * Removes the results for the nodes and blocks of the given control flow graph, which must have
+     * been added by {@link #combine}. The values of effectively final local variables are kept,
+     * because they may be used by code that was analyzed separately, such as lambdas.
+     *
+     * @param cfg the control flow graph whose results to remove
+     */
+    public void removeResultsFor(ControlFlowGraph cfg) {
+        Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Block block : cfg.getAllBlocks()) {
+            nodes.addAll(block.getNodes());
+            TransferInput<V, S> input = stores.remove(block);
+            // analysisCaches is null if the type factory does not cache.
+            if (input != null && analysisCaches != null) {
+                analysisCaches.remove(input);
+            }
+        }
+        for (Node node : nodes) {
+            nodeValues.remove(node);
+        }
+        for (Tree tree : cfg.getTreeLookup().keySet()) {
+            Set<Node> treeNodes = treeLookup.get(tree);
+            if (treeNodes != null) {
+                treeNodes.removeIf(nodes::contains);
+                if (treeNodes.isEmpty()) {
+                    treeLookup.remove(tree);
+                }
+            }
+        }
+        for (UnaryTree tree : cfg.getUnaryAssignNodeLookup().keySet()) {
+            AssignmentNode assign = unaryAssignNodeLookup.get(tree);
+            if (assign != null && nodes.contains(assign)) {
+                unaryAssignNodeLookup.remove(tree);
+            }
+        }
+    }
+
     /**
      * Merge all entries from otherTreeLookup into treeLookup. Merge sets if already present.
      *
@@ -83,6 +83,7 @@ public class BackwardAnalysisImpl<
             init(cfg);
             while (!worklist.isEmpty()) {
                 Block b = worklist.poll();
+                blockAnalysisCount++;
                 performAnalysisBlock(b);
             }
         } finally {
@@ -104,6 +104,7 @@ public class ForwardAnalysisImpl<
             init(cfg);
             while (!worklist.isEmpty()) {
                 Block b = worklist.poll();
+                blockAnalysisCount++;
                 performAnalysisBlock(b);
             }
         } finally {
@@ -590,6 +591,7 @@ public class ForwardAnalysisImpl<
         if (previousStore == null) {
             return newStore;
         } else if (shouldWiden) {
+            wideningCount++;
             return newStore.widenedUpperBound(previousStore);
         } else {
             return newStore.leastUpperBound(previousStore);
@@ -39,6 +39,8 @@ import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.PhaseProfiler;
+import org.checkerframework.framework.util.SlowestAnalysesReport;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
@@ -176,8 +178,8 @@ public abstract class BaseTypeChecker extends SourceChecker {
      *
      * <p>Though each checker is run on a whole compilation unit before the next checker is run,
      * error and warning messages are collected and sorted based on the location in the source file
-     * before being printed. (See {@link #printOrStoreMessage(Diagnostic.Kind, String, Tree,
-     * CompilationUnitTree)}.)
+     * before being printed. (See {@link #printOrStoreMessage(Diagnostic.Kind, String, String,
+     * Tree, CompilationUnitTree)}.)
      *
      * <p>WARNING: Circular dependencies are not supported nor do checkers verify that their
      * dependencies are not circular. Make sure no circular dependencies are created when overriding
@@ -504,6 +506,14 @@ public abstract class BaseTypeChecker extends SourceChecker {
         // issued errors, the next checker's errsOnLastExit needs to include all errors
         // issued by previous checkers.
 
+        // The subcheckers run one after another, in the order of getSubcheckers(), even if they
+        // do not depend on each other.  They cannot run concurrently:  javac's symbol table,
+        // types, and Log are not thread-safe and are completed lazily by whichever checker first
+        // queries them, and the checkers share mutable state (the TreePathCacher, the CFGs in
+        // GenericAnnotatedTypeFactory#subcheckerSharedCFG, and messageStore).  Because
+        // messageStore is sorted by position and then by checker, the order in which the
+        // subcheckers run does not affect the order of the messages.
+
         Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
         Log log = Log.instance(context);
 
@@ -526,6 +536,26 @@ public abstract class BaseTypeChecker extends SourceChecker {
             printStoredMessages(tree.getCompilationUnit());
             // Update errsOnLastExit to reflect the errors issued.
             this.errsOnLastExit = log.nerrors;
+            if (parentChecker == null && hasOption("releaseFlowResults")) {
+                releaseFlowResults();
+            }
+        }
+    }
+
+    /**
+     * Discards the dataflow results of this checker and of all its subcheckers. Called after all of
+     * them have checked a top-level class, if the {@code -AreleaseFlowResults} command-line option
+     * is provided.
+     *
+     * @see GenericAnnotatedTypeFactory#releaseFlowResults()
+     */
+    private void releaseFlowResults() {
+        for (BaseTypeChecker subchecker : getSubcheckers()) {
+            subchecker.releaseFlowResults();
+        }
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> factory = getTypeFactory();
+        if (factory != null) {
+            factory.releaseFlowResults();
         }
     }
 
@@ -547,6 +577,26 @@ public abstract class BaseTypeChecker extends SourceChecker {
         return this.suppressWarningsPrefixesOfSubcheckers;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation also prints statistics about the caches of the type factory.
+     */
+    @Override
+    protected void printStats() {
+        super.printStats();
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> factory = getTypeFactory();
+        if (factory != null) {
+            List<String> cacheStatistics = factory.getCacheStatistics();
+            if (!cacheStatistics.isEmpty()) {
+                System.out.println(getClass().getSimpleName() + " type factory caches");
+                for (String line : cacheStatistics) {
+                    System.out.println("  " + line);
+                }
+            }
+        }
+    }
+
     /**
      * Finds the ultimate parent checker of this checker. The ultimate parent checker is the checker
      * that the user actually requested, i.e. the one with no parent. The ultimate parent might be
@@ -604,19 +654,25 @@ public abstract class BaseTypeChecker extends SourceChecker {
 
     /**
      * If this is a compound checker or a subchecker of a compound checker, then the message is
-     * stored until all messages from all checkers for the compilation unit are issued.
+     * stored until all messages from all checkers for the compilation unit are issued. A message
+     * that is a duplicate of a stored one is discarded, along with its {@code jsonDiagnostic}.
      *
      * <p>Otherwise, it prints the message.
      */
     @Override
     protected void printOrStoreMessage(
-            Diagnostic.Kind kind, String message, Tree source, CompilationUnitTree root) {
+            Diagnostic.Kind kind,
+            String message,
+            @Nullable String jsonDiagnostic,
+            Tree source,
+            CompilationUnitTree root) {
         assert this.currentRoot == root;
         StackTraceElement[] trace = Thread.currentThread().getStackTrace();
         if (messageStore == null) {
-            super.printOrStoreMessage(kind, message, source, root, trace);
+            super.printOrStoreMessage(kind, message, jsonDiagnostic, source, root, trace);
         } else {
-            CheckerMessage checkerMessage = new CheckerMessage(kind, message, source, this, trace);
+            CheckerMessage checkerMessage =
+                    new CheckerMessage(kind, message, jsonDiagnostic, source, this, trace);
             messageStore.add(checkerMessage);
         }
     }
@@ -631,7 +687,8 @@ public abstract class BaseTypeChecker extends SourceChecker {
     private void printStoredMessages(CompilationUnitTree unit) {
         if (messageStore != null) {
             for (CheckerMessage msg : messageStore) {
-                super.printOrStoreMessage(msg.kind, msg.message, msg.source, unit, msg.trace);
+                super.printOrStoreMessage(
+                        msg.kind, msg.message, msg.jsonDiagnostic, msg.source, unit, msg.trace);
             }
         }
     }
@@ -642,6 +699,8 @@ public abstract class BaseTypeChecker extends SourceChecker {
         final Diagnostic.Kind kind;
         /** The message itself. */
         final String message;
+        /** The message in the format of the -AjsonDiagnostics command-line option, or null. */
+        final @Nullable String jsonDiagnostic;
         /** The source code that the message is about. */
         final @InternedDistinct Tree source;
         /** Stores the stack trace when the message is created. */
@@ -658,6 +717,8 @@ public abstract class BaseTypeChecker extends SourceChecker {
          *
          * @param kind kind of diagnostic, for example, error or warning
          * @param message error message that needs to be printed
+         * @param jsonDiagnostic the message in the format of the -AjsonDiagnostics command-line
+         *     option, or null if the option was not supplied
          * @param source tree element causing the error
          * @param checker the type-checker in use
          * @param trace the stack trace when the message is created
@@ -665,11 +726,13 @@ public abstract class BaseTypeChecker extends SourceChecker {
         private CheckerMessage(
                 Diagnostic.Kind kind,
                 String message,
+                @Nullable String jsonDiagnostic,
                 @FindDistinct Tree source,
                 @FindDistinct BaseTypeChecker checker,
                 StackTraceElement[] trace) {
             this.kind = kind;
             this.message = message;
+            this.jsonDiagnostic = jsonDiagnostic;
             this.source = source;
             this.checker = checker;
             this.trace = trace;
@@ -766,9 +829,48 @@ public abstract class BaseTypeChecker extends SourceChecker {
             checker.typeProcessingOver();
         }
 
+        if (parentChecker == null && hasOption("reportSlowestMethods")) {
+            reportSlowestAnalyses();
+        }
+
         super.typeProcessingOver();
     }
 
+    /**
+     * Reports the slowest dataflow analyses performed by this checker and its subcheckers, for the
+     * -AreportSlowestMethods command-line option.
+     */
+    private void reportSlowestAnalyses() {
+        List<SlowestAnalysesReport> reports = new ArrayList<>();
+        List<BaseTypeChecker> checkers = new ArrayList<>(getSubcheckers());
+        checkers.add(this);
+        for (BaseTypeChecker checker : checkers) {
+            GenericAnnotatedTypeFactory<?, ?, ?, ?> factory = checker.getTypeFactory();
+            SlowestAnalysesReport report =
+                    factory == null ? null : factory.getSlowestAnalysesReport();
+            if (report != null) {
+                reports.add(report);
+            }
+        }
+        String message = SlowestAnalysesReport.format(reports);
+        if (message != null) {
+            message(Diagnostic.Kind.NOTE, message);
+        }
+    }
+
+    @Override
+    protected List<PhaseProfiler> getPhaseProfilers() {
+        List<PhaseProfiler> result = new ArrayList<>();
+        for (BaseTypeChecker subchecker : getSubcheckers()) {
+            PhaseProfiler profiler = subchecker.getPhaseProfiler();
+            if (profiler != null) {
+                result.add(profiler);
+            }
+        }
+        result.addAll(super.getPhaseProfilers());
+        return result;
+    }
+
     @Override
     public Set<String> getSupportedOptions() {
         if (supportedOptions == null) {
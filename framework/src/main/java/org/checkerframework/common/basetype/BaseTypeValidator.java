@@ -201,7 +201,8 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
             final @CompilerMessageKey String errorType,
             final AnnotatedTypeMirror type,
             final Tree p) {
-        checker.reportError(p, errorType, type.getAnnotations(), type.toString());
+        checker.reportError(
+                p, errorType, type.getAnnotations(), DiagMessage.deferred(type::toString));
         isValid = false;
     }
 
@@ -257,9 +258,9 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
                 tree,
                 "bound.type.incompatible",
                 label,
-                type.toString(),
-                upperBound.toString(true),
-                lowerBound.toString(true));
+                DiagMessage.deferred(type::toString),
+                DiagMessage.deferred(() -> upperBound.toString(true)),
+                DiagMessage.deferred(() -> lowerBound.toString(true)));
         isValid = false;
     }
 
@@ -60,6 +60,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.Vector;
+import java.util.function.BooleanSupplier;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
@@ -312,7 +313,13 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         if (tree != null && getCurrentPath() != null) {
             this.visitorState.setPath(new TreePath(getCurrentPath(), tree));
         }
-        return super.scan(tree, p);
+        Void result = super.scan(tree, p);
+        if (tree != null && tree.getKind() == Tree.Kind.METHOD) {
+            // Done here rather than in visitMethod, so that overriding visitMethod implementations
+            // can still use the dataflow results after calling super.visitMethod.
+            atypeFactory.releaseFlowResults((MethodTree) tree);
+        }
+        return result;
     }
 
     /**
@@ -2752,7 +2759,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
                             "monotonic.type.incompatible",
                             mono.getSimpleName(),
                             mono.getSimpleName(),
-                            valueType.toString());
+                            DiagMessage.deferred(valueType::toString));
                     return;
                 }
             }
@@ -2763,12 +2770,10 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         // Use an error key only if it's overridden by a checker.
         if (!success) {
             FoundRequired pair = FoundRequired.of(valueType, varType);
-            String valueTypeString = pair.found;
-            String varTypeString = pair.required;
             checker.reportError(
                     valueTree,
                     errorKey,
-                    SystemUtil.concatenate(extraArgs, valueTypeString, varTypeString));
+                    SystemUtil.concatenate(extraArgs, pair.found, pair.required));
         }
     }
 
@@ -2858,31 +2863,51 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
 
     /**
      * Class that creates string representations of {@link AnnotatedTypeMirror}s which are only
-     * verbose if required to differentiate the two types.
+     * verbose if required to differentiate the two types. The string representations are message
+     * arguments created by {@link DiagMessage#deferred}, so they are computed only if the message
+     * is reported.
      */
     private static class FoundRequired {
-        public final String found;
-        public final String required;
+        /** The string representation of the found type. */
+        public final Object found;
+        /** The string representation of the required type. */
+        public final Object required;
+        /** Computes whether to use verbose string representations. */
+        private final BooleanSupplier shouldPrintVerbose;
+        /** Whether to use verbose string representations; null until it is computed. */
+        private @Nullable Boolean verbose;
 
         private FoundRequired(AnnotatedTypeMirror found, AnnotatedTypeMirror required) {
-            if (shouldPrintVerbose(found, required)) {
-                this.found = found.toString(true);
-                this.required = required.toString(true);
-            } else {
-                this.found = found.toString();
-                this.required = required.toString();
-            }
+            this.shouldPrintVerbose = () -> shouldPrintVerbose(found, required);
+            this.found =
+                    DiagMessage.deferred(
+                            () -> isVerbose() ? found.toString(true) : found.toString());
+            this.required =
+                    DiagMessage.deferred(
+                            () -> isVerbose() ? required.toString(true) : required.toString());
         }
 
         /** Create a FoundRequired for a type and bounds. */
         private FoundRequired(AnnotatedTypeMirror found, AnnotatedTypeParameterBounds required) {
-            if (shouldPrintVerbose(found, required)) {
-                this.found = found.toString(true);
-                this.required = required.toString(true);
-            } else {
-                this.found = found.toString();
-                this.required = required.toString();
+            this.shouldPrintVerbose = () -> shouldPrintVerbose(found, required);
+            this.found =
+                    DiagMessage.deferred(
+                            () -> isVerbose() ? found.toString(true) : found.toString());
+            this.required =
+                    DiagMessage.deferred(
+                            () -> isVerbose() ? required.toString(true) : required.toString());
+        }
+
+        /**
+         * Returns whether to use verbose string representations, computing it the first time.
+         *
+         * @return whether to use verbose string representations
+         */
+        private boolean isVerbose() {
+            if (verbose == null) {
+                verbose = shouldPrintVerbose.getAsBoolean();
             }
+            return verbose;
         }
 
         /**
@@ -24,13 +24,30 @@ class RangeOrListOfValues {
     private List<Integer> values;
     private boolean isRange;
 
-    public RangeOrListOfValues(List<Integer> values) {
+    /** The maximum number of values in the list; more values are converted to a range. */
+    private final int maxValues;
+
+    /**
+     * Creates a list of values.
+     *
+     * @param atypeFactory the type factory, whose {@code -AmaxValues} limit applies
+     * @param values the values
+     */
+    public RangeOrListOfValues(ValueAnnotatedTypeFactory atypeFactory, List<Integer> values) {
+        this.maxValues = atypeFactory.getMaxValues();
         this.values = new ArrayList<>();
         isRange = false;
         addAll(values);
     }
 
-    public RangeOrListOfValues(Range range) {
+    /**
+     * Creates a range.
+     *
+     * @param atypeFactory the type factory, whose {@code -AmaxValues} limit applies
+     * @param range the range
+     */
+    public RangeOrListOfValues(ValueAnnotatedTypeFactory atypeFactory, Range range) {
+        this.maxValues = atypeFactory.getMaxValues();
         this.range = range;
         isRange = true;
     }
@@ -63,7 +80,7 @@ class RangeOrListOfValues {
                     values.add(i);
                 }
             }
-            if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            if (values.size() > maxValues) {
                 convertToRange();
             }
         }
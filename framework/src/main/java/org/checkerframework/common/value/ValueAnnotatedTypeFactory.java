@@ -72,6 +72,7 @@ import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypeKindUtils;
 import org.checkerframework.javacutil.TypesUtils;
+import org.checkerframework.javacutil.UserError;
 
 /** AnnotatedTypeFactory for the Value type system. */
 public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
@@ -112,8 +113,14 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     public static final String MATCHES_REGEX_NAME =
             "org.checkerframework.common.value.qual.MatchesRegex";
 
-    /** The maximum number of values allowed in an annotation's array. */
-    protected static final int MAX_VALUES = 10;
+    /** The default value of {@link #maxValues}. */
+    public static final int DEFAULT_MAX_VALUES = 10;
+
+    /**
+     * The maximum number of values allowed in an annotation's array. It is set by the {@code
+     * -AmaxValues} command-line option.
+     */
+    protected final int maxValues;
 
     /** The top type for this hierarchy. */
     protected final AnnotationMirror UNKNOWNVAL =
@@ -170,6 +177,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
         reportEvalWarnings = checker.hasOption(ValueChecker.REPORT_EVAL_WARNS);
         Range.ignoreOverflow = checker.hasOption(ValueChecker.IGNORE_RANGE_OVERFLOW);
+        this.maxValues = getMaxValuesOption(checker);
         evaluator = new ReflectiveEvaluator(checker, this, reportEvalWarnings);
 
         addAliasedTypeAnnotation("android.support.annotation.IntRange", IntRange.class, true);
@@ -222,6 +230,39 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         }
     }
 
+    /**
+     * Returns the value of the {@code -AmaxValues} command-line option, or {@link
+     * #DEFAULT_MAX_VALUES} if it is not supplied.
+     *
+     * @param checker the checker whose options to read
+     * @return the maximum number of values allowed in an annotation's array
+     */
+    private static int getMaxValuesOption(BaseTypeChecker checker) {
+        String option = checker.getOption(ValueChecker.MAX_VALUES);
+        if (option == null) {
+            return DEFAULT_MAX_VALUES;
+        }
+        try {
+            int result = Integer.parseInt(option);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below.
+        }
+        throw new UserError("maxValues was not a positive integer: " + option);
+    }
+
+    /**
+     * Returns the maximum number of values allowed in an annotation's array, as set by the {@code
+     * -AmaxValues} command-line option.
+     *
+     * @return the maximum number of values allowed in an annotation's array
+     */
+    public int getMaxValues() {
+        return maxValues;
+    }
+
     /** Gets a helper object that holds references to methods with special handling. */
     ValueMethodIdentifier getMethodIdentifier() {
         return methods;
@@ -710,7 +751,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     /**
      * Returns a {@link IntVal} or {@link IntRange} annotation using the values. If {@code values}
      * is null, then UnknownVal is returned; if {@code values} is empty, then bottom is returned. If
-     * the number of {@code values} is greater than MAX_VALUES, return an {@link IntRange}. In other
+     * the number of {@code values} is greater than maxValues, return an {@link IntRange}. In other
      * cases, the values are sorted and duplicates are removed before an {@link IntVal} is created.
      *
      * @param values list of longs; duplicates are allowed and the values may be in any order
@@ -724,7 +765,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = ValueCheckerUtils.removeDuplicates(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             long valMin = Collections.min(values);
             long valMax = Collections.max(values);
             return createIntRangeAnnotation(valMin, valMax);
@@ -741,7 +782,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      */
     public AnnotationMirror convertIntRangeToIntVal(AnnotationMirror intRangeAnno) {
         Range range = getRange(intRangeAnno);
-        List<Long> values = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+        List<Long> values = ValueCheckerUtils.getValuesFromRange(range, Long.class, this);
         return createIntValAnnotation(values);
     }
 
@@ -761,7 +802,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = ValueCheckerUtils.removeDuplicates(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             AnnotationBuilder builder = new AnnotationBuilder(processingEnv, DoubleVal.class);
@@ -803,7 +844,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = ValueCheckerUtils.removeDuplicates(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             // Too many strings are replaced by their lengths
             List<Integer> lengths = ValueCheckerUtils.getLengthsForStringValues(values);
             return createArrayLenAnnotation(lengths);
@@ -834,7 +875,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         values = ValueCheckerUtils.removeDuplicates(values);
         if (values.isEmpty() || Collections.min(values) < 0) {
             return BOTTOMVAL;
-        } else if (values.size() > MAX_VALUES) {
+        } else if (values.size() > maxValues) {
             return createArrayLenRangeAnnotation(Collections.min(values), Collections.max(values));
         } else {
             AnnotationBuilder builder = new AnnotationBuilder(processingEnv, ArrayLen.class);
@@ -859,7 +900,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = ValueCheckerUtils.removeDuplicates(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             // TODO: This seems wasteful.  Why not create the 3 interesting AnnotationMirrors (with
@@ -888,7 +929,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = ValueCheckerUtils.removeDuplicates(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             List<Long> longValues = new ArrayList<>();
@@ -953,10 +994,10 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         } else if (range.isLongEverything()) {
             return UNKNOWNVAL;
-        } else if (range.isWiderThan(MAX_VALUES)) {
+        } else if (range.isWiderThan(maxValues)) {
             return createIntRangeAnnotation(range.from, range.to);
         } else {
-            List<Long> newValues = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+            List<Long> newValues = ValueCheckerUtils.getValuesFromRange(range, Long.class, this);
             return createIntValAnnotation(newValues);
         }
     }
@@ -1060,7 +1101,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     /**
      * Converts an {@code @StringVal} annotation to an {@code @ArrayLen} annotation. If the
-     * {@code @StringVal} annotation contains string values of more than MAX_VALUES distinct
+     * {@code @StringVal} annotation contains string values of more than maxValues distinct
      * lengths, {@code @ArrayLenRange} annotation is returned instead.
      */
     /* package-private */ AnnotationMirror convertStringValToArrayLen(
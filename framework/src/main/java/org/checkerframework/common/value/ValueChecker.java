@@ -20,7 +20,8 @@ import org.checkerframework.framework.source.SupportedOptions;
 @SupportedOptions({
     ValueChecker.REPORT_EVAL_WARNS,
     ValueChecker.IGNORE_RANGE_OVERFLOW,
-    ValueChecker.NON_NULL_STRINGS_CONCATENATION
+    ValueChecker.NON_NULL_STRINGS_CONCATENATION,
+    ValueChecker.MAX_VALUES
 })
 public class ValueChecker extends BaseTypeChecker {
     /**
@@ -32,6 +33,11 @@ public class ValueChecker extends BaseTypeChecker {
     public static final String IGNORE_RANGE_OVERFLOW = "ignoreRangeOverflow";
     /** Command-line option that assumes most expressions in String concatenations can be null. */
     public static final String NON_NULL_STRINGS_CONCATENATION = "nonNullStringsConcatenation";
+    /**
+     * Command-line option to set the maximum number of values in a {@code *Val} annotation, above
+     * which the checker uses a range or gives up.
+     */
+    public static final String MAX_VALUES = "maxValues";
 
     @Override
     protected BaseTypeVisitor<?> createSourceVisitor() {
@@ -53,7 +53,7 @@ public class ValueCheckerUtils {
                 break;
             case ValueAnnotatedTypeFactory.INTRANGE_NAME:
                 Range range = atypeFactory.getRange(anno);
-                List<Long> rangeValues = getValuesFromRange(range, Long.class);
+                List<Long> rangeValues = getValuesFromRange(range, Long.class, atypeFactory);
                 values = convertIntVal(rangeValues, castType, castTo);
                 break;
             case ValueAnnotatedTypeFactory.STRINGVAL_NAME:
@@ -120,10 +120,13 @@ public class ValueCheckerUtils {
      *
      * @param range the given range
      * @param expectedType the expected type
-     * @return a list of all the values in the range
+     * @param atypeFactory the type factory, whose {@code -AmaxValues} limit applies
+     * @return a list of all the values in the range, or null if the range has more values than
+     *     the limit
      */
-    public static <T> List<T> getValuesFromRange(Range range, Class<T> expectedType) {
-        if (range == null || range.isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+    public static <T> List<T> getValuesFromRange(
+            Range range, Class<T> expectedType, ValueAnnotatedTypeFactory atypeFactory) {
+        if (range == null || range.isWiderThan(atypeFactory.getMaxValues())) {
             return null;
         }
         List<T> values = new ArrayList<>();
@@ -132,7 +135,7 @@ public class ValueCheckerUtils {
         }
 
         // The subtraction does not overflow, because the width has already been checked, so the
-        // bound difference is less than ValueAnnotatedTypeFactory.MAX_VALUES.
+        // bound difference is less than the limit.
         long boundDifference = range.to - range.from;
 
         // Each value is computed as a sum of the first value and an offset within the range,
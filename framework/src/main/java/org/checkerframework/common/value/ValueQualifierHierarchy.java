@@ -111,7 +111,7 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
 
     @Override
     public int numberOfIterationsBeforeWidening() {
-        return ValueAnnotatedTypeFactory.MAX_VALUES + 1;
+        return atypeFactory.getMaxValues() + 1;
     }
 
     @Override
@@ -264,7 +264,7 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
                     if (newObjectValues.isEmpty()) {
                         return atypeFactory.BOTTOMVAL;
                     }
-                    if (newObjectValues.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+                    if (newObjectValues.size() > atypeFactory.getMaxValues()) {
                         return atypeFactory.UNKNOWNVAL;
                     }
                     AnnotationBuilder builder =
@@ -447,23 +447,24 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
                 return superRange.contains(subLongRange);
             case ValueAnnotatedTypeFactory.DOUBLEVAL_NAME + ValueAnnotatedTypeFactory.INTRANGE_NAME:
                 Range subRange = atypeFactory.getRange(subAnno);
-                if (subRange.isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                if (subRange.isWiderThan(atypeFactory.getMaxValues())) {
                     return false;
                 }
                 List<Double> superDoubleValues =
                         ValueAnnotatedTypeFactory.getDoubleValues(superAnno);
                 List<Double> subDoubleValues =
-                        ValueCheckerUtils.getValuesFromRange(subRange, Double.class);
+                        ValueCheckerUtils.getValuesFromRange(subRange, Double.class, atypeFactory);
                 return superDoubleValues.containsAll(subDoubleValues);
             case ValueAnnotatedTypeFactory.INTVAL_NAME + ValueAnnotatedTypeFactory.INTRANGE_NAME:
             case ValueAnnotatedTypeFactory.ARRAYLEN_NAME
                     + ValueAnnotatedTypeFactory.ARRAYLENRANGE_NAME:
                 Range subRange2 = atypeFactory.getRange(subAnno);
-                if (subRange2.isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                if (subRange2.isWiderThan(atypeFactory.getMaxValues())) {
                     return false;
                 }
                 List<Long> superValues2 = atypeFactory.getArrayLenOrIntValue(superAnno);
-                List<Long> subValues2 = ValueCheckerUtils.getValuesFromRange(subRange2, Long.class);
+                List<Long> subValues2 =
+                        ValueCheckerUtils.getValuesFromRange(subRange2, Long.class, atypeFactory);
                 return superValues2.containsAll(subValues2);
             case ValueAnnotatedTypeFactory.STRINGVAL_NAME
                     + ValueAnnotatedTypeFactory.ARRAYLENRANGE_NAME:
@@ -177,13 +177,15 @@ public class ValueTransfer extends CFTransfer {
             // @IntVal is not checked for, because if it is present, we would already have the
             // actual string values
             Range lengthRange = getIntRangeStringLengthRange(subNode, p);
-            return ValueCheckerUtils.getValuesFromRange(lengthRange, Integer.class);
+            return ValueCheckerUtils.getValuesFromRange(lengthRange, Integer.class, atypeFactory);
         } else if (subNodeTypeKind == TypeKind.BYTE) {
             // bytes are between 1 and 4 characters long
-            return ValueCheckerUtils.getValuesFromRange(Range.create(1, 4), Integer.class);
+            return ValueCheckerUtils.getValuesFromRange(
+                    Range.create(1, 4), Integer.class, atypeFactory);
         } else if (subNodeTypeKind == TypeKind.SHORT) {
             // shorts are between 1 and 6 characters long
-            return ValueCheckerUtils.getValuesFromRange(Range.create(1, 6), Integer.class);
+            return ValueCheckerUtils.getValuesFromRange(
+                    Range.create(1, 6), Integer.class, atypeFactory);
         } else {
             return null;
         }
@@ -226,7 +228,8 @@ public class ValueTransfer extends CFTransfer {
             return getStringValues(((StringConversionNode) subNode).getOperand(), p);
         } else if (isIntRange(subNode, p)) {
             Range range = getIntRange(subNode, p);
-            List<Long> longValues = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+            List<Long> longValues =
+                    ValueCheckerUtils.getValuesFromRange(range, Long.class, atypeFactory);
             values = NumberUtils.castNumbers(subNode.getType(), longValues);
         } else {
             values = getNumericalValues(subNode, p);
@@ -301,7 +304,7 @@ public class ValueTransfer extends CFTransfer {
                     hierarchy.findAnnotationInHierarchy(
                             value.getAnnotations(), atypeFactory.UNKNOWNVAL);
             Range range = atypeFactory.getRange(intAnno);
-            return ValueCheckerUtils.getValuesFromRange(range, Character.class);
+            return ValueCheckerUtils.getValuesFromRange(range, Character.class, atypeFactory);
         }
 
         return new ArrayList<>();
@@ -575,11 +578,13 @@ public class ValueTransfer extends CFTransfer {
 
         RangeOrListOfValues rolv;
         if (atypeFactory.isIntRange(lengthAnno)) {
-            rolv = new RangeOrListOfValues(atypeFactory.getRange(lengthAnno));
+            rolv = new RangeOrListOfValues(atypeFactory, atypeFactory.getRange(lengthAnno));
         } else if (AnnotationUtils.areSameByName(
                 lengthAnno, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
             List<Long> lengthValues = ValueAnnotatedTypeFactory.getIntValues(lengthAnno);
-            rolv = new RangeOrListOfValues(RangeOrListOfValues.convertLongsToInts(lengthValues));
+            rolv =
+                    new RangeOrListOfValues(
+                            atypeFactory, RangeOrListOfValues.convertLongsToInts(lengthValues));
         } else {
             return;
         }
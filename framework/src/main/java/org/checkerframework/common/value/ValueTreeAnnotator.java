@@ -143,11 +143,12 @@ class ValueTreeAnnotator extends TreeAnnotator {
         } else {
             RangeOrListOfValues rolv = null;
             if (atypeFactory.isIntRange(dimType)) {
-                rolv = new RangeOrListOfValues(atypeFactory.getRange(dimType));
+                rolv = new RangeOrListOfValues(atypeFactory, atypeFactory.getRange(dimType));
             } else if (AnnotationUtils.areSameByName(
                     dimType, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
                 rolv =
                         new RangeOrListOfValues(
+                                atypeFactory,
                                 RangeOrListOfValues.convertLongsToInts(
                                         ValueAnnotatedTypeFactory.getIntValues(dimType)));
             }
@@ -197,7 +198,8 @@ class ValueTreeAnnotator extends TreeAnnotator {
                     if (rolv != null) {
                         rolv.addAll(currentLengths);
                     } else {
-                        arrayLenOfDimensions.add(new RangeOrListOfValues(currentLengths));
+                        arrayLenOfDimensions.add(
+                                new RangeOrListOfValues(atypeFactory, currentLengths));
                     }
                 } else {
                     // Check for an arrayLenRange annotation
@@ -212,7 +214,7 @@ class ValueTreeAnnotator extends TreeAnnotator {
                     if (rolv != null) {
                         rolv.add(range);
                     } else {
-                        arrayLenOfDimensions.add(new RangeOrListOfValues(range));
+                        arrayLenOfDimensions.add(new RangeOrListOfValues(atypeFactory, range));
                     }
                 }
 
@@ -278,7 +280,7 @@ class ValueTreeAnnotator extends TreeAnnotator {
                 newAnno = oldAnno;
             } else if (atypeFactory.isIntRange(oldAnno)
                     && (range = atypeFactory.getRange(oldAnno))
-                            .isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                            .isWiderThan(atypeFactory.getMaxValues())) {
                 Class<?> newClass = TypesUtils.getClassFromType(newType);
                 if (newClass == String.class) {
                     newAnno = atypeFactory.UNKNOWNVAL;
@@ -43,7 +43,7 @@ class ValueTypeAnnotator extends TypeAnnotator {
     /**
      * This method performs pre-processing on annotations written by users.
      *
-     * <p>If any *Val annotation has &gt; MAX_VALUES number of values provided, replaces the
+     * <p>If any *Val annotation has &gt; maxValues number of values provided, replaces the
      * annotation by @IntRange for integral types, @ArrayLenRange for arrays, @ArrayLen
      * or @ArrayLenRange for strings, and @UnknownVal for all other types. Works together with
      * {@link ValueVisitor#visitAnnotation(com.sun.source.tree.AnnotationTree, Void)} which issues
@@ -71,7 +71,7 @@ class ValueTypeAnnotator extends TypeAnnotator {
 
         if (AnnotationUtils.areSameByName(anno, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
             List<Long> values = ValueAnnotatedTypeFactory.getIntValues(anno);
-            if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            if (values.size() > typeFactory.getMaxValues()) {
                 atm.replaceAnnotation(typeFactory.createIntRangeAnnotation(Range.create(values)));
             }
         } else if (AnnotationUtils.areSameByName(anno, ValueAnnotatedTypeFactory.ARRAYLEN_NAME)) {
@@ -80,7 +80,7 @@ class ValueTypeAnnotator extends TypeAnnotator {
                 atm.replaceAnnotation(typeFactory.BOTTOMVAL);
             } else if (Collections.min(values) < 0) {
                 atm.replaceAnnotation(typeFactory.BOTTOMVAL);
-            } else if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            } else if (values.size() > typeFactory.getMaxValues()) {
                 atm.replaceAnnotation(
                         typeFactory.createArrayLenRangeAnnotation(Range.create(values)));
             }
@@ -131,7 +131,7 @@ class ValueTypeAnnotator extends TypeAnnotator {
             // ArrayLen or ArrayLenRange is used.
             List<String> values = ValueAnnotatedTypeFactory.getStringValues(anno);
 
-            if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            if (values.size() > typeFactory.getMaxValues()) {
                 List<Integer> lengths = ValueCheckerUtils.getLengthsForStringValues(values);
                 atm.replaceAnnotation(typeFactory.createArrayLenAnnotation(lengths));
             }
@@ -155,7 +155,7 @@ class ValueTypeAnnotator extends TypeAnnotator {
             // Therefore we extract its values in a generic way to check its size.
             List<Object> values =
                     AnnotationUtils.getElementValueArray(anno, "value", Object.class, false);
-            if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            if (values.size() > typeFactory.getMaxValues()) {
                 atm.replaceAnnotation(typeFactory.UNKNOWNVAL);
             }
         }
@@ -158,7 +158,7 @@ public class ValueVisitor extends BaseTypeVisitor<ValueAnnotatedTypeFactory> {
      *
      * <p>Issues an error if any constant-value annotation has no arguments.
      *
-     * <p>Issues a warning if any constant-value annotation has &gt; MAX_VALUES arguments.
+     * <p>Issues a warning if any constant-value annotation has &gt; maxValues arguments.
      *
      * <p>Issues a warning if any @ArrayLen/@ArrayLenRange annotations contain a negative array
      * length.
@@ -210,14 +210,14 @@ public class ValueVisitor extends BaseTypeVisitor<ValueAnnotatedTypeFactory> {
                 if (values.isEmpty()) {
                     checker.reportWarning(node, "no.values.given");
                     return null;
-                } else if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+                } else if (values.size() > atypeFactory.getMaxValues()) {
                     checker.reportWarning(
                             node,
                             (AnnotationUtils.areSameByName(
                                             anno, ValueAnnotatedTypeFactory.INTVAL_NAME)
                                     ? "too.many.values.given.int"
                                     : "too.many.values.given"),
-                            ValueAnnotatedTypeFactory.MAX_VALUES);
+                            atypeFactory.getMaxValues());
                     return null;
                 } else if (AnnotationUtils.areSameByName(
                         anno, ValueAnnotatedTypeFactory.ARRAYLEN_NAME)) {
@@ -470,7 +470,7 @@ public class Range {
 
         long resultFrom = Math.min(from, right.from);
         long resultTo = Math.max(to, right.to);
-        return create(resultFrom, resultTo);
+        return createOrReuse(resultFrom, resultTo, right);
     }
 
     /**
@@ -488,7 +488,31 @@ public class Range {
 
         long resultFrom = Math.max(from, right.from);
         long resultTo = Math.min(to, right.to);
-        return createOrNothing(resultFrom, resultTo);
+        if (resultFrom > resultTo) {
+            return NOTHING;
+        }
+        return createOrReuse(resultFrom, resultTo, right);
+    }
+
+    /**
+     * Returns this range or {@code other} if it is the range [from..to]; otherwise returns a new
+     * range. Requires {@code from <= to}. Avoids an allocation in the common case that an
+     * operation leaves one of its operands unchanged, for example when a loop does not widen a
+     * range.
+     *
+     * @param from the lower bound (inclusive)
+     * @param to the upper bound (inclusive)
+     * @param other a range that may be returned
+     * @return the range [from..to]
+     */
+    private Range createOrReuse(long from, long to, Range other) {
+        if (this.from == from && this.to == to) {
+            return this;
+        } else if (other.from == from && other.to == to) {
+            return other;
+        } else {
+            return create(from, to);
+        }
     }
 
     /**
@@ -524,15 +548,10 @@ public class Range {
             return NOTHING;
         }
 
-        if (this.isWithinHalfLong() && right.isWithinHalfLong()) {
-            // This bound is adequate to guarantee no overflow when using long to evaluate
-            long resultFrom = from + right.from;
-            long resultTo = to + right.to;
-            if (from > to) {
-                return Range.EVERYTHING;
-            } else {
-                return create(resultFrom, resultTo);
-            }
+        long resultFrom = from + right.from;
+        long resultTo = to + right.to;
+        if (!addOverflows(from, right.from, resultFrom) && !addOverflows(to, right.to, resultTo)) {
+            return create(resultFrom, resultTo);
         } else {
             BigInteger bigFrom = BigInteger.valueOf(from).add(BigInteger.valueOf(right.from));
             BigInteger bigTo = BigInteger.valueOf(to).add(BigInteger.valueOf(right.to));
@@ -553,10 +572,10 @@ public class Range {
             return NOTHING;
         }
 
-        if (this.isWithinHalfLong() && right.isWithinHalfLong()) {
-            // This bound is adequate to guarantee no overflow when using long to evaluate
-            long resultFrom = from - right.to;
-            long resultTo = to - right.from;
+        long resultFrom = from - right.to;
+        long resultTo = to - right.from;
+        if (!subtractOverflows(from, right.to, resultFrom)
+                && !subtractOverflows(to, right.from, resultTo)) {
             return create(resultFrom, resultTo);
         } else {
             BigInteger bigFrom = BigInteger.valueOf(from).subtract(BigInteger.valueOf(right.to));
@@ -578,12 +597,17 @@ public class Range {
             return NOTHING;
         }
 
-        // These bounds are adequate:  Integer.MAX_VALUE^2 is still a bit less than Long.MAX_VALUE.
-        if (this.isWithinInteger() && right.isWithinInteger()) {
-            List<Long> possibleValues =
-                    Arrays.asList(
-                            from * right.from, from * right.to, to * right.from, to * right.to);
-            return create(possibleValues);
+        long fromFrom = from * right.from;
+        long fromTo = from * right.to;
+        long toFrom = to * right.from;
+        long toTo = to * right.to;
+        if (!multiplyOverflows(from, right.from, fromFrom)
+                && !multiplyOverflows(from, right.to, fromTo)
+                && !multiplyOverflows(to, right.from, toFrom)
+                && !multiplyOverflows(to, right.to, toTo)) {
+            return create(
+                    Math.min(Math.min(fromFrom, fromTo), Math.min(toFrom, toTo)),
+                    Math.max(Math.max(fromFrom, fromTo), Math.max(toFrom, toTo)));
         } else {
             final BigInteger bigLeftFrom = BigInteger.valueOf(from);
             final BigInteger bigRightFrom = BigInteger.valueOf(right.from);
@@ -781,10 +805,12 @@ public class Range {
         // see https://docs.oracle.com/javase/specs/jls/se11/html/jls-15.html#jls-15.19 for more
         // detail.
         if (right.isWithin(0, 31)) {
-            if (this.isWithinInteger()) {
-                // This bound is adequate to guarantee no overflow when using long to evaluate
-                long resultFrom = from << (from >= 0 ? right.from : right.to);
-                long resultTo = to << (to >= 0 ? right.to : right.from);
+            int fromShift = (int) (from >= 0 ? right.from : right.to);
+            int toShift = (int) (to >= 0 ? right.to : right.from);
+            long resultFrom = from << fromShift;
+            long resultTo = to << toShift;
+            if ((resultFrom >> fromShift) == from && (resultTo >> toShift) == to) {
+                // Neither shift overflowed.
                 return create(resultFrom, resultTo);
             } else {
                 BigInteger bigFrom =
@@ -1195,18 +1221,59 @@ public class Range {
      * @return true if wider than the given value
      */
     public boolean isWiderThan(long value) {
-        if (this.isWithin((Long.MIN_VALUE >> 1) + 1, Long.MAX_VALUE >> 1)) {
-            // This bound is adequate to guarantee no overflow when using long to evaluate.
-            // Long.MIN_VALUE >> 1 + 1 = -4611686018427387903
-            // Long.MAX_VALUE >> 1 = 4611686018427387903
-            return width() > value;
-        } else {
-            return BigInteger.valueOf(to)
-                            .subtract(BigInteger.valueOf(from))
-                            .add(BigInteger.ONE)
-                            .compareTo(BigInteger.valueOf(value))
-                    > 0;
+        long difference = to - from;
+        if (subtractOverflows(to, from, difference)) {
+            // The width is either more than Long.MAX_VALUE, or (for NOTHING) negative.
+            return to > from;
         }
+        // The width is difference + 1, which might overflow.
+        return difference >= value;
+    }
+
+    /**
+     * Returns true if {@code x + y} overflows, given {@code sum}, the result of {@code x + y} in
+     * {@code long} arithmetic. This is the same check as {@link Math#addExact}, but it does not
+     * throw an exception.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @param sum {@code x + y}, computed with {@code long} arithmetic
+     * @return true if the sum of {@code x} and {@code y} is not a {@code long}
+     */
+    private static boolean addOverflows(long x, long y, long sum) {
+        return ((x ^ sum) & (y ^ sum)) < 0;
+    }
+
+    /**
+     * Returns true if {@code x - y} overflows, given {@code difference}, the result of {@code x -
+     * y} in {@code long} arithmetic. This is the same check as {@link Math#subtractExact}, but it
+     * does not throw an exception.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @param difference {@code x - y}, computed with {@code long} arithmetic
+     * @return true if the difference of {@code x} and {@code y} is not a {@code long}
+     */
+    private static boolean subtractOverflows(long x, long y, long difference) {
+        return ((x ^ y) & (x ^ difference)) < 0;
+    }
+
+    /**
+     * Returns true if {@code x * y} overflows, given {@code product}, the result of {@code x * y}
+     * in {@code long} arithmetic. This is the same check as {@link Math#multiplyExact}, but it does
+     * not throw an exception.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @param product {@code x * y}, computed with {@code long} arithmetic
+     * @return true if the product of {@code x} and {@code y} is not a {@code long}
+     */
+    private static boolean multiplyOverflows(long x, long y, long product) {
+        if (((Math.abs(x) | Math.abs(y)) >>> 31) == 0) {
+            // Both operands fit in 31 bits, so the product fits in 62 bits.
+            return false;
+        }
+        return (y != 0 && product / y != x) || (x == Long.MIN_VALUE && y == -1);
     }
 
     /** Determines if this range represents a constant value. */
@@ -1227,14 +1294,6 @@ public class Range {
         return lb <= from && to <= ub;
     }
 
-    /**
-     * Determines if this range is contained inclusively between Long.MIN_VALUE/2 and
-     * Long.MAX_VALUE/2. Note: Long.MIN_VALUE/2 != -Long.MAX_VALUE/2
-     */
-    private boolean isWithinHalfLong() {
-        return isWithin(Long.MIN_VALUE >> 1, Long.MAX_VALUE >> 1);
-    }
-
     /**
      * Determines if this range is completely contained in the scope of the Integer type.
      *
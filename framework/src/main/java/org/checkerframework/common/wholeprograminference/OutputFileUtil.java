@@ -0,0 +1,109 @@
+package org.checkerframework.common.wholeprograminference;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes the files that whole-program inference outputs.
+ *
+ * <p>Whole-program inference is iterated until its output files stop changing, and each iteration
+ * rewrites the file for every class whose annotations it updated, even if the new annotations are
+ * the same as the old ones. This class leaves a file untouched if its contents would not change,
+ * so that its timestamp shows whether the last iteration changed it, and so that tools that
+ * compare timestamps do not redo work. A file that does change is replaced atomically, so a tool
+ * that reads it concurrently never sees a partially-written file. A replaced file keeps its
+ * permissions, and a new file gets the default permissions for the current user, as if it had been
+ * written directly.
+ */
+public final class OutputFileUtil {
+
+    /** Do not instantiate. */
+    private OutputFileUtil() {
+        throw new AssertionError("Class OutputFileUtil cannot be instantiated.");
+    }
+
+    /**
+     * Writes {@code contents} to the file at {@code path}, unless the file already has exactly
+     * those contents. The file is replaced atomically if the file system supports it.
+     *
+     * @param path the file to write
+     * @param contents the new contents of the file
+     * @return true if the file was written, false if it already had the given contents
+     * @throws IOException if the file cannot be read or written
+     */
+    public static boolean writeIfChanged(String path, String contents) throws IOException {
+        Path file = Paths.get(path);
+        byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(file)
+                && Files.size(file) == bytes.length
+                && Arrays.equals(Files.readAllBytes(file), bytes)) {
+            return false;
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = createTempFile(dir, file.getFileName().toString());
+        try {
+            Files.write(temp, bytes);
+            if (Files.isRegularFile(file)) {
+                copyPermissions(file, temp);
+            }
+            try {
+                Files.move(
+                        temp,
+                        file,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new, empty temporary file in the given directory. Unlike {@link
+     * Files#createTempFile(Path, String, String, java.nio.file.attribute.FileAttribute[])}, which
+     * makes the file readable only by its owner, this gives the file the default permissions for
+     * the current user (for example, as determined by the umask), so that moving it into place
+     * does not change the permissions of an output file.
+     *
+     * @param dir the directory in which to create the file
+     * @param prefix the prefix of the file name
+     * @return the new file
+     * @throws IOException if the file cannot be created
+     */
+    private static Path createTempFile(Path dir, String prefix) throws IOException {
+        while (true) {
+            long suffix = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            try {
+                return Files.createFile(dir.resolve(prefix + "." + suffix + ".tmp"));
+            } catch (FileAlreadyExistsException e) {
+                // Try another name.
+            }
+        }
+    }
+
+    /**
+     * Gives {@code to} the POSIX permissions of {@code from}, if the file system supports them.
+     *
+     * @param from the file whose permissions to copy
+     * @param to the file whose permissions to set
+     * @throws IOException if the permissions cannot be read or set
+     */
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        try {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the new file has the default permissions.
+        }
+    }
+}
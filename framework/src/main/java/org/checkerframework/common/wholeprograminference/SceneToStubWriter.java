@@ -1,9 +1,10 @@
 package org.checkerframework.common.wholeprograminference;
 
 import com.google.common.collect.ComparisonChain;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -620,20 +621,16 @@ public final class SceneToStubWriter {
 
         boolean anyClassPrintable = false;
 
-        // The writer is not initialized until it is certain that at
-        // least one class can be written, to avoid empty stub files.
-        PrintWriter printWriter = null;
+        // The file is not written unless at least one class can be written, to avoid empty stub
+        // files. The contents are written to a string first, so that the file is not rewritten if
+        // they have not changed.
+        StringWriter stubContents = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stubContents);
 
         // For each class
         for (String clazz : classes) {
             if (isPrintable(clazz, scene.getAScene().getClasses().get(clazz))) {
                 if (!anyClassPrintable) {
-                    try {
-                        printWriter = new PrintWriter(new FileWriter(filename));
-                    } catch (IOException e) {
-                        throw new BugInCF("error writing file during WPI: " + filename);
-                    }
-
                     // Write out all imports
                     ImportDefWriter importDefWriter;
                     try {
@@ -649,8 +646,15 @@ public final class SceneToStubWriter {
                 printClass(clazz, scene.getAScene().getClasses().get(clazz), checker, printWriter);
             }
         }
-        if (printWriter != null) {
-            printWriter.flush();
+        printWriter.flush();
+        if (!anyClassPrintable) {
+            new File(filename).delete();
+            return;
+        }
+        try {
+            OutputFileUtil.writeIfChanged(filename, stubContents.toString());
+        } catch (IOException e) {
+            throw new BugInCF("error writing file during WPI: " + filename, e);
         }
     }
 
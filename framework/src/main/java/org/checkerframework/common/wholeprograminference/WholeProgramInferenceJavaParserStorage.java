@@ -26,7 +26,6 @@ import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -582,8 +581,6 @@ public class WholeProgramInferenceJavaParserStorage
             name += "-" + checker.getClass().getCanonicalName() + ".ajava";
             String outputPath = packageDir + File.separator + name;
             try {
-                FileWriter writer = new FileWriter(outputPath);
-
                 // JavaParser can output using lexical preserving printing, which writes the file
                 // such that its formatting is close to the original source file it was parsed from
                 // as possible. Currently, this feature is very buggy and crashes when adding
@@ -592,8 +589,8 @@ public class WholeProgramInferenceJavaParserStorage
                 // LexicalPreservingPrinter.print(root.declaration, writer);
 
                 PrettyPrinter prettyPrinter = new PrettyPrinter(new PrettyPrinterConfiguration());
-                writer.write(prettyPrinter.print(root.compilationUnit));
-                writer.close();
+                OutputFileUtil.writeIfChanged(
+                        outputPath, prettyPrinter.print(root.compilationUnit));
             } catch (IOException e) {
                 throw new BugInCF("Error while writing ajava file " + outputPath, e);
             }
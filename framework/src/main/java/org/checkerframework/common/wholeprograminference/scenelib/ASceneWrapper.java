@@ -2,8 +2,8 @@ package org.checkerframework.common.wholeprograminference.scenelib;
 
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -17,6 +17,7 @@ import javax.lang.model.element.VariableElement;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.common.wholeprograminference.AnnotationConverter;
+import org.checkerframework.common.wholeprograminference.OutputFileUtil;
 import org.checkerframework.common.wholeprograminference.SceneToStubWriter;
 import org.checkerframework.common.wholeprograminference.WholeProgramInference.OutputFormat;
 import org.checkerframework.common.wholeprograminference.WholeProgramInferenceScenesStorage;
@@ -142,9 +143,10 @@ public class ASceneWrapper {
             default:
                 throw new BugInCF("Unhandled outputFormat " + outputFormat);
         }
-        new File(filepath).delete();
         // Only write non-empty scenes into files.
-        if (!scene.isEmpty()) {
+        if (scene.isEmpty()) {
+            new File(filepath).delete();
+        } else {
             try {
                 switch (outputFormat) {
                     case STUB:
@@ -171,7 +173,9 @@ public class ASceneWrapper {
                                 aMethod.contracts = contractAnnotations;
                             }
                         }
-                        IndexFileWriter.write(scene, new FileWriter(filepath));
+                        StringWriter jaifContents = new StringWriter();
+                        IndexFileWriter.write(scene, jaifContents);
+                        OutputFileUtil.writeIfChanged(filepath, jaifContents.toString());
                         break;
                     default:
                         throw new BugInCF("Unhandled outputFormat " + outputFormat);
@@ -11,6 +11,7 @@ import javax.lang.model.util.Types;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.analysis.TransferInput;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -114,6 +115,25 @@ public abstract class CFAbstractAnalysis<
         return fieldValues;
     }
 
+    /**
+     * Returns the {@link CFAbstractStore#size size} of the largest store before a basic block at
+     * the end of the last run of the analysis.
+     *
+     * @return the size of the largest store computed by the last run of the analysis
+     */
+    public int getLargestStoreSize() {
+        int result = 0;
+        for (TransferInput<V, S> input : inputs.values()) {
+            if (input.containsTwoStores()) {
+                result = Math.max(result, input.getThenStore().size());
+                result = Math.max(result, input.getElseStore().size());
+            } else {
+                result = Math.max(result, input.getRegularStore().size());
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the transfer function to be used by the analysis.
      *
@@ -1,6 +1,5 @@
 package org.checkerframework.framework.flow;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -123,24 +122,29 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
 
     protected CFAbstractStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
         this.analysis = analysis;
-        localVariableValues = new HashMap<>();
+        localVariableValues = new CopyOnWriteHashMap<>();
         thisValue = null;
-        fieldValues = new HashMap<>();
-        methodValues = new HashMap<>();
-        arrayValues = new HashMap<>();
-        classValues = new HashMap<>();
+        fieldValues = new CopyOnWriteHashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
+        arrayValues = new CopyOnWriteHashMap<>();
+        classValues = new CopyOnWriteHashMap<>();
         this.sequentialSemantics = sequentialSemantics;
     }
 
-    /** Copy constructor. */
+    /**
+     * Copy constructor. The copy shares its maps with {@code other} until one of the two stores is
+     * modified, so copying a store takes constant time.
+     *
+     * @param other the store to copy
+     */
     protected CFAbstractStore(CFAbstractStore<V, S> other) {
         this.analysis = other.analysis;
-        localVariableValues = new HashMap<>(other.localVariableValues);
+        localVariableValues = new CopyOnWriteHashMap<>(other.localVariableValues);
         thisValue = other.thisValue;
-        fieldValues = new HashMap<>(other.fieldValues);
-        methodValues = new HashMap<>(other.methodValues);
-        arrayValues = new HashMap<>(other.arrayValues);
-        classValues = new HashMap<>(other.classValues);
+        fieldValues = new CopyOnWriteHashMap<>(other.fieldValues);
+        methodValues = new CopyOnWriteHashMap<>(other.methodValues);
+        arrayValues = new CopyOnWriteHashMap<>(other.arrayValues);
+        classValues = new CopyOnWriteHashMap<>(other.classValues);
         sequentialSemantics = other.sequentialSemantics;
     }
 
@@ -231,7 +235,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
             if (sideEffectsUnrefineAliases) {
                 fieldValues.entrySet().removeIf(e -> !e.getKey().isUnmodifiableByOtherCode());
             } else {
-                Map<FieldAccess, V> newFieldValues = new HashMap<>();
+                Map<FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
                 for (Map.Entry<FieldAccess, V> e : fieldValues.entrySet()) {
                     FieldAccess fieldAccess = e.getKey();
                     V otherVal = e.getValue();
@@ -1055,6 +1059,20 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     /* Helper and miscellaneous methods */
     /* --------------------------------------------------------- */
 
+    /**
+     * Returns the number of expressions, including "this", about which this store has information.
+     *
+     * @return the number of expressions about which this store has information
+     */
+    public int size() {
+        return localVariableValues.size()
+                + (thisValue == null ? 0 : 1)
+                + fieldValues.size()
+                + arrayValues.size()
+                + methodValues.size()
+                + classValues.size();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public S copy() {
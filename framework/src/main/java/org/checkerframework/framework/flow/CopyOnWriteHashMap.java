@@ -0,0 +1,322 @@
+package org.checkerframework.framework.flow;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A hash map that can be copied in constant time. A copy shares the underlying {@link HashMap} with
+ * the original map until one of them is modified; the first modification of a map whose {@link
+ * HashMap} is shared copies the {@link HashMap}.
+ *
+ * <p>{@link CFAbstractStore} uses this class for its maps, because the dataflow analysis copies
+ * each store many times but modifies most copies in only a few places, or not at all.
+ *
+ * <p>Iterating over a view of the map never copies the underlying {@link HashMap}. Removing an
+ * element through an iterator of a view, or setting the value of an entry, modifies the map as
+ * usual; the iteration itself continues over the state of the map when the iterator was created.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class CopyOnWriteHashMap<K, V> extends AbstractMap<K, V> {
+
+    /** The mappings of this map. Must not be modified if {@link #shared} is true. */
+    private HashMap<K, V> map;
+
+    /**
+     * True if {@link #map} may also be the underlying map of another {@link CopyOnWriteHashMap}, so
+     * it must be copied before it is modified.
+     */
+    private boolean shared;
+
+    /** Creates an empty map. */
+    public CopyOnWriteHashMap() {
+        this.map = new HashMap<>();
+        this.shared = false;
+    }
+
+    /**
+     * Creates a map with the same mappings as the given map. If {@code other} is a {@link
+     * CopyOnWriteHashMap}, this takes constant time.
+     *
+     * @param other the map whose mappings to copy
+     */
+    public CopyOnWriteHashMap(Map<K, V> other) {
+        if (other instanceof CopyOnWriteHashMap) {
+            CopyOnWriteHashMap<K, V> cow = (CopyOnWriteHashMap<K, V>) other;
+            this.map = cow.map;
+            this.shared = true;
+            cow.shared = true;
+        } else {
+            this.map = new HashMap<>(other);
+            this.shared = false;
+        }
+    }
+
+    /**
+     * Returns the underlying map, after copying it if it is shared with another map.
+     *
+     * @return the underlying map, which may be modified
+     */
+    private HashMap<K, V> writableMap() {
+        if (shared) {
+            map = new HashMap<>(map);
+            shared = false;
+        }
+        return map;
+    }
+
+    /**
+     * Returns true if the given map is the underlying map of this and can be modified in place.
+     *
+     * @param m a map
+     * @return true if {@code m} is the underlying map of this and is not shared
+     */
+    private boolean isWritable(HashMap<K, V> m) {
+        return m == map && !shared;
+    }
+
+    // Queries
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public @Nullable V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        return o == this || map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    // Modifications
+
+    @Override
+    public @Nullable V put(K key, V value) {
+        return writableMap().put(key, value);
+    }
+
+    @Override
+    public @Nullable V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        return writableMap().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (!m.isEmpty()) {
+            writableMap().putAll(m);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            map = new HashMap<>();
+            shared = false;
+        } else {
+            map.clear();
+        }
+    }
+
+    // Views
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public void clear() {
+                CopyOnWriteHashMap.this.clear();
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new ViewIterator<>(e -> new Entry(e));
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return map.containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!map.containsKey(o)) {
+                    return false;
+                }
+                writableMap().remove(o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                CopyOnWriteHashMap.this.clear();
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                return new ViewIterator<>(Map.Entry::getKey);
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public void clear() {
+                CopyOnWriteHashMap.this.clear();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new ViewIterator<>(Map.Entry::getValue);
+            }
+        };
+    }
+
+    /**
+     * An iterator over a view of the map. It iterates over the underlying map at the time it was
+     * created, and it removes elements from whichever underlying map the map has at the time of
+     * the removal.
+     *
+     * @param <T> the type of the elements of the view
+     */
+    private class ViewIterator<T> implements Iterator<T> {
+
+        /** The underlying map when this iterator was created. */
+        private final HashMap<K, V> iteratedMap = map;
+
+        /** The iterator over the entries of {@link #iteratedMap}. */
+        private final Iterator<Map.Entry<K, V>> entries = iteratedMap.entrySet().iterator();
+
+        /** Converts an entry to an element of the view. */
+        private final Function<Map.Entry<K, V>, T> toElement;
+
+        /** The entry most recently returned by {@link #next}, or null. */
+        private Map.@Nullable Entry<K, V> last = null;
+
+        /**
+         * Creates an iterator over a view of the map.
+         *
+         * @param toElement converts an entry to an element of the view
+         */
+        ViewIterator(Function<Map.Entry<K, V>, T> toElement) {
+            this.toElement = toElement;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public T next() {
+            last = entries.next();
+            return toElement.apply(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (isWritable(iteratedMap)) {
+                entries.remove();
+            } else {
+                writableMap().remove(last.getKey());
+            }
+            last = null;
+        }
+    }
+
+    /**
+     * An entry of the map. Setting its value modifies the map, copying the underlying map first if
+     * it is shared.
+     */
+    private class Entry extends AbstractMap.SimpleEntry<K, V> {
+
+        /** The serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates an entry of the map.
+         *
+         * @param entry the corresponding entry of the underlying map
+         */
+        Entry(Map.Entry<K, V> entry) {
+            super(entry);
+        }
+
+        @Override
+        public V setValue(V value) {
+            writableMap().put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
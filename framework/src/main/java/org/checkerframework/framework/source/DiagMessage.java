@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import javax.tools.Diagnostic.Kind;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -103,6 +104,84 @@ public class DiagMessage {
         return kind + messageKey + " : " + Arrays.toString(args);
     }
 
+    /**
+     * Returns a message argument whose value is computed only if the message is reported, that is,
+     * only if it is not suppressed. Use it for an argument that is expensive to compute, such as
+     * the string representation of a type.
+     *
+     * <p>The supplier is called at most once. {@link SourceChecker#reportError} and the other
+     * reporting methods call it before they return, so it may use values that the caller changes
+     * afterward, but not values that the caller changes before the message is reported.
+     *
+     * @param supplier computes the value of the argument
+     * @return a message argument whose value is the result of {@code supplier}
+     * @see #resolveArg(Object)
+     */
+    public static Object deferred(Supplier<?> supplier) {
+        return new DeferredArg(supplier);
+    }
+
+    /**
+     * Returns the value of the given message argument: the computed value if it was created by
+     * {@link #deferred}, or the argument itself otherwise.
+     *
+     * @param arg a message argument
+     * @return the value of {@code arg}
+     */
+    public static Object resolveArg(Object arg) {
+        if (arg instanceof DeferredArg) {
+            return ((DeferredArg) arg).get();
+        }
+        return arg;
+    }
+
+    /** A message argument whose value is computed when it is first needed. */
+    private static class DeferredArg {
+        /** Computes the value; null once the value has been computed. */
+        private @Nullable Supplier<?> supplier;
+
+        /** The value; null until it has been computed. */
+        private @Nullable Object value;
+
+        /**
+         * Creates a DeferredArg.
+         *
+         * @param supplier computes the value
+         */
+        DeferredArg(Supplier<?> supplier) {
+            this.supplier = supplier;
+        }
+
+        /**
+         * Returns the value, computing it if necessary.
+         *
+         * @return the value
+         */
+        @SuppressWarnings("nullness:return.type.incompatible") // value is set if supplier is null
+        Object get() {
+            if (supplier != null) {
+                value = supplier.get();
+                supplier = null;
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            return obj instanceof DeferredArg && get().equals(((DeferredArg) obj).get());
+        }
+
+        @Override
+        public int hashCode() {
+            return get().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return get().toString();
+        }
+    }
+
     /**
      * Returns the concatenation of the lists.
      *
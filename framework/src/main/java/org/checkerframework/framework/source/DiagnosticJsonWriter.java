@@ -0,0 +1,253 @@
+package org.checkerframework.framework.source;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.util.JsonUtil;
+
+/**
+ * Writes diagnostics as newline-delimited JSON, for the {@code -AjsonDiagnostics} command-line
+ * option. Each diagnostic is written, on its own line, as soon as it is printed, so a tool can
+ * read the diagnostics while the compiler is still running, and neither the writer nor the tool
+ * needs to hold all of them in memory. A checker formats a diagnostic with {@link #toJson} when
+ * it reports the diagnostic, and writes it with {@link #write(String)} when it prints the
+ * diagnostic: a compound checker stores its diagnostics, and discards duplicates, until it has
+ * checked a whole compilation unit.
+ *
+ * <p>Each line is an object with these fields:
+ *
+ * <ul>
+ *   <li>{@code checker}: the fully-qualified name of the checker that issued the diagnostic
+ *   <li>{@code kind}: {@code "error"} or {@code "warning"}
+ *   <li>{@code messageKey}: the message key, which can be used to suppress the diagnostic
+ *   <li>{@code message}: the human-readable message
+ *   <li>{@code file}: the URI of the source file, if known
+ *   <li>{@code startOffset}, {@code endOffset}: the range of characters in the source file, if
+ *       known
+ *   <li>{@code line}, {@code column}: the 1-based line and column of {@code startOffset}, if known
+ *   <li>{@code arguments}: the arguments of the message, as strings
+ *   <li>{@code found}, {@code required}: the found and required types, if the message has them
+ * </ul>
+ */
+public final class DiagnosticJsonWriter implements Closeable {
+
+    /** Where to write the diagnostics. */
+    private final BufferedWriter out;
+
+    /**
+     * Creates a writer of diagnostics.
+     *
+     * @param out where to write the diagnostics
+     */
+    public DiagnosticJsonWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+    }
+
+    /**
+     * Writes one diagnostic, and flushes it so that readers of the output see it immediately.
+     *
+     * @param checker the fully-qualified name of the checker that issued the diagnostic
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param messageFormat the format string of the human-readable message
+     * @param message the human-readable message
+     * @param args the arguments of the message, or null
+     * @param source the tree that the diagnostic is about, or null if it is unknown
+     * @param root the compilation unit that contains {@code source}, or null if it is unknown
+     * @param positions the source positions of {@code root}, or null if {@code root} is null
+     * @throws IOException if writing fails
+     */
+    public void write(
+            String checker,
+            Diagnostic.Kind kind,
+            String messageKey,
+            String messageFormat,
+            String message,
+            Object @Nullable [] args,
+            @Nullable Tree source,
+            @Nullable CompilationUnitTree root,
+            @Nullable SourcePositions positions)
+            throws IOException {
+        write(
+                toJson(
+                        checker,
+                        kind,
+                        messageKey,
+                        messageFormat,
+                        message,
+                        args,
+                        source,
+                        root,
+                        positions));
+    }
+
+    /**
+     * Writes one diagnostic that was formatted by {@link #toJson}, and flushes it so that readers
+     * of the output see it immediately.
+     *
+     * @param json a diagnostic in JSON format, without a line terminator
+     * @throws IOException if writing fails
+     */
+    public void write(String json) throws IOException {
+        out.write(json);
+        out.newLine();
+        out.flush();
+    }
+
+    /**
+     * Returns one diagnostic as a JSON object, without a line terminator.
+     *
+     * @param checker the fully-qualified name of the checker that issued the diagnostic
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param messageFormat the format string of the human-readable message
+     * @param message the human-readable message
+     * @param args the arguments of the message, or null
+     * @param source the tree that the diagnostic is about, or null if it is unknown
+     * @param root the compilation unit that contains {@code source}, or null if it is unknown
+     * @param positions the source positions of {@code root}, or null if {@code root} is null
+     * @return the diagnostic as a JSON object
+     */
+    public static String toJson(
+            String checker,
+            Diagnostic.Kind kind,
+            String messageKey,
+            String messageFormat,
+            String message,
+            Object @Nullable [] args,
+            @Nullable Tree source,
+            @Nullable CompilationUnitTree root,
+            @Nullable SourcePositions positions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"checker\": ").append(JsonUtil.jsonString(checker));
+        sb.append(", \"kind\": ");
+        sb.append(kind == Diagnostic.Kind.ERROR ? "\"error\"" : "\"warning\"");
+        sb.append(", \"messageKey\": ").append(JsonUtil.jsonString(messageKey));
+        sb.append(", \"message\": ").append(JsonUtil.jsonString(message));
+
+        if (root != null) {
+            sb.append(", \"file\": ")
+                    .append(JsonUtil.jsonString(root.getSourceFile().toUri().toString()));
+            if (source != null && positions != null) {
+                long start = positions.getStartPosition(root, source);
+                long end = positions.getEndPosition(root, source);
+                if (start != Diagnostic.NOPOS) {
+                    sb.append(", \"startOffset\": ").append(start);
+                    if (end != Diagnostic.NOPOS) {
+                        sb.append(", \"endOffset\": ").append(end);
+                    }
+                    LineMap lineMap = root.getLineMap();
+                    if (lineMap != null) {
+                        sb.append(", \"line\": ").append(lineMap.getLineNumber(start));
+                        sb.append(", \"column\": ").append(lineMap.getColumnNumber(start));
+                    }
+                }
+            }
+        }
+
+        List<String> argStrings = new ArrayList<>();
+        if (args != null) {
+            for (Object arg : args) {
+                argStrings.add(Objects.toString(arg));
+            }
+        }
+        sb.append(", \"arguments\": [");
+        for (int i = 0; i < argStrings.size(); i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(JsonUtil.jsonString(argStrings.get(i)));
+        }
+        sb.append("]");
+
+        int[] foundRequired = foundAndRequiredIndices(messageFormat);
+        if (foundRequired[0] >= 0 && foundRequired[0] < argStrings.size()) {
+            sb.append(", \"found\": ")
+                    .append(JsonUtil.jsonString(argStrings.get(foundRequired[0])));
+        }
+        if (foundRequired[1] >= 0 && foundRequired[1] < argStrings.size()) {
+            sb.append(", \"required\": ")
+                    .append(JsonUtil.jsonString(argStrings.get(foundRequired[1])));
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the indices of the arguments that a message format labels as the found and the
+     * required type, as in {@code "found   : %s%nrequired: %s"}. Only format specifiers without
+     * an explicit argument index are supported.
+     *
+     * @param messageFormat the format string of a message
+     * @return a two-element array: the index of the argument that is the found type, and the index
+     *     of the argument that is the required type; each is -1 if the message has no such argument
+     */
+    static int[] foundAndRequiredIndices(String messageFormat) {
+        int[] result = {-1, -1};
+        int argIndex = 0;
+        int i = messageFormat.indexOf('%');
+        while (i >= 0 && i + 1 < messageFormat.length()) {
+            char conversion = messageFormat.charAt(i + 1);
+            if (conversion == '%' || conversion == 'n') {
+                i = messageFormat.indexOf('%', i + 2);
+                continue;
+            }
+            String label = labelBefore(messageFormat, i);
+            if (label.equals("found")) {
+                result[0] = argIndex;
+            } else if (label.equals("required")) {
+                result[1] = argIndex;
+            }
+            argIndex++;
+            i = messageFormat.indexOf('%', i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the word that labels the format specifier at the given index, such as {@code found}
+     * in {@code "found   : %s"}, or the empty string if the specifier is not preceded by a word
+     * and a colon.
+     *
+     * @param messageFormat the format string of a message
+     * @param specifierIndex the index of a {@code %} in {@code messageFormat}
+     * @return the word before the colon before the format specifier, or the empty string
+     */
+    private static String labelBefore(String messageFormat, int specifierIndex) {
+        int end = specifierIndex;
+        while (end > 0 && messageFormat.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end == 0 || messageFormat.charAt(end - 1) != ':') {
+            return "";
+        }
+        end--;
+        while (end > 0 && messageFormat.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && Character.isLetter(messageFormat.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && messageFormat.charAt(start - 1) == '%') {
+            // Skip the "n" of a preceding "%n".
+            start++;
+        }
+        return messageFormat.substring(start, end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,314 @@
+package org.checkerframework.framework.source;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.TreePathUtil;
+
+/**
+ * Maps source positions in one compilation unit to the innermost variable, method, and class
+ * declarations that enclose them. {@link SourceChecker#shouldSuppressWarnings(Tree, String)} uses
+ * it to find the declarations whose {@code @SuppressWarnings} annotations apply to a tree, without
+ * computing the {@link TreePath} of the tree, which requires a scan of the whole compilation unit
+ * for every warning.
+ *
+ * <p>The index is built by one scan of the compilation unit. It divides the compilation unit into
+ * segments within which the innermost enclosing declarations do not change, so a lookup is a
+ * binary search over the segment boundaries.
+ *
+ * <p>Anonymous classes are not indexed: their source range starts at the {@code new} keyword, so
+ * it includes the arguments of the instance creation, which the anonymous class does not enclose.
+ * An anonymous class cannot be annotated, so its enclosing named declarations determine which
+ * warnings are suppressed within it.
+ */
+public final class EnclosingDeclarationIndex {
+
+    /** The compilation unit that this index describes. */
+    private final CompilationUnitTree root;
+
+    /** The source positions of {@link #root}. */
+    private final SourcePositions positions;
+
+    /**
+     * The start positions of the segments, in increasing order. Segment {@code i} extends from
+     * {@code segmentStarts[i]} to {@code segmentStarts[i + 1]}.
+     */
+    private final long[] segmentStarts;
+
+    /** The enclosing declarations of each segment, parallel to {@link #segmentStarts}. */
+    private final Enclosing[] segmentDeclarations;
+
+    /**
+     * Maps each indexed declaration to the declarations that enclose it, including itself. A
+     * declaration cannot always be looked up by position: in {@code int a, b;}, both variables
+     * start at {@code int}.
+     */
+    private final IdentityHashMap<Tree, Enclosing> declarationEnclosings = new IdentityHashMap<>();
+
+    /**
+     * Creates an index of the declarations in the given compilation unit.
+     *
+     * @param root a compilation unit
+     * @param positions the source positions of {@code root}
+     */
+    public EnclosingDeclarationIndex(CompilationUnitTree root, SourcePositions positions) {
+        this.root = root;
+        this.positions = positions;
+
+        List<Declaration> declarations = new ArrayList<>();
+        new DeclarationCollector(declarations).scan(root, null);
+        // Enclosing declarations come before the declarations they enclose.
+        declarations.sort(
+                Comparator.comparingLong((Declaration d) -> d.start)
+                        .thenComparingLong(d -> -d.end));
+
+        List<Long> starts = new ArrayList<>();
+        List<Enclosing> enclosings = new ArrayList<>();
+        ArrayDeque<Declaration> open = new ArrayDeque<>();
+        for (Declaration decl : declarations) {
+            while (!open.isEmpty() && open.element().end <= decl.start) {
+                Declaration closed = open.pop();
+                addSegment(starts, enclosings, closed.end, enclosingOf(open));
+            }
+            if (!open.isEmpty() && decl.end > open.element().end) {
+                // Source ranges should nest; clip one that does not.
+                decl.end = open.element().end;
+            }
+            decl.enclosing = enclosingOf(open).with(decl.tree);
+            declarationEnclosings.put(decl.tree, decl.enclosing);
+            open.push(decl);
+            addSegment(starts, enclosings, decl.start, decl.enclosing);
+        }
+        while (!open.isEmpty()) {
+            Declaration closed = open.pop();
+            addSegment(starts, enclosings, closed.end, enclosingOf(open));
+        }
+
+        this.segmentStarts = new long[starts.size()];
+        for (int i = 0; i < segmentStarts.length; i++) {
+            segmentStarts[i] = starts.get(i);
+        }
+        this.segmentDeclarations = enclosings.toArray(new Enclosing[0]);
+    }
+
+    /**
+     * Returns the compilation unit that this index describes.
+     *
+     * @return the compilation unit that this index describes
+     */
+    public CompilationUnitTree getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the innermost declarations that enclose the given tree, including the tree itself if
+     * it is a declaration. Returns null if the tree has no source position, such as a tree that the
+     * compiler synthesized; clients should use {@link Enclosing#of(TreePath)} for such a tree.
+     *
+     * @param tree a tree in the compilation unit of this index
+     * @return the innermost declarations that enclose {@code tree}, or null if {@code tree} has no
+     *     source position
+     */
+    public @Nullable Enclosing lookup(Tree tree) {
+        Enclosing result = declarationEnclosings.get(tree);
+        if (result != null) {
+            return result;
+        }
+        long start = positions.getStartPosition(root, tree);
+        if (start == Diagnostic.NOPOS || positions.getEndPosition(root, tree) == Diagnostic.NOPOS) {
+            return null;
+        }
+        int index = Arrays.binarySearch(segmentStarts, start);
+        if (index < 0) {
+            // The segment that contains start is the one before the insertion point.
+            index = -index - 2;
+        }
+        return index < 0 ? Enclosing.NONE : segmentDeclarations[index];
+    }
+
+    /**
+     * Adds a segment boundary. A boundary at the same position as the previous one replaces it,
+     * because the previous segment is empty.
+     *
+     * @param starts the start positions of the segments
+     * @param enclosings the enclosing declarations of the segments
+     * @param start the start position of the new segment
+     * @param enclosing the enclosing declarations of the new segment
+     */
+    private static void addSegment(
+            List<Long> starts, List<Enclosing> enclosings, long start, Enclosing enclosing) {
+        int last = starts.size() - 1;
+        if (last >= 0 && starts.get(last) == start) {
+            enclosings.set(last, enclosing);
+        } else {
+            starts.add(start);
+            enclosings.add(enclosing);
+        }
+    }
+
+    /**
+     * Returns the declarations that enclose the innermost open declaration, including it.
+     *
+     * @param open the open declarations; the innermost is first
+     * @return the innermost declarations of each kind among {@code open}
+     */
+    private static Enclosing enclosingOf(ArrayDeque<Declaration> open) {
+        return open.isEmpty() ? Enclosing.NONE : open.element().enclosing;
+    }
+
+    /** The innermost variable, method, and class declarations that enclose a tree. */
+    public static final class Enclosing {
+
+        /** The result for a tree that is not within any declaration. */
+        static final Enclosing NONE = new Enclosing(null, null, null);
+
+        /** The innermost enclosing variable declaration, or null if there is none. */
+        public final @Nullable VariableTree variable;
+
+        /** The innermost enclosing method declaration, or null if there is none. */
+        public final @Nullable MethodTree method;
+
+        /** The innermost enclosing class declaration, or null if there is none. */
+        public final @Nullable ClassTree classTree;
+
+        /**
+         * Creates an {@code Enclosing}.
+         *
+         * @param variable the innermost enclosing variable declaration, or null
+         * @param method the innermost enclosing method declaration, or null
+         * @param classTree the innermost enclosing class declaration, or null
+         */
+        private Enclosing(
+                @Nullable VariableTree variable,
+                @Nullable MethodTree method,
+                @Nullable ClassTree classTree) {
+            this.variable = variable;
+            this.method = method;
+            this.classTree = classTree;
+        }
+
+        /**
+         * Returns the innermost declarations that enclose the leaf of the given path.
+         *
+         * @param path a path, or null
+         * @return the innermost declarations that enclose the leaf of {@code path}
+         */
+        public static Enclosing of(@Nullable TreePath path) {
+            if (path == null) {
+                return NONE;
+            }
+            return new Enclosing(
+                    TreePathUtil.enclosingVariable(path),
+                    TreePathUtil.enclosingMethod(path),
+                    TreePathUtil.enclosingClass(path));
+        }
+
+        /**
+         * Returns these declarations, with the given declaration as the innermost one of its kind.
+         *
+         * @param declaration a variable, method, or class declaration
+         * @return these declarations, with {@code declaration} as the innermost one of its kind
+         */
+        Enclosing with(Tree declaration) {
+            if (declaration.getKind() == Tree.Kind.VARIABLE) {
+                return new Enclosing((VariableTree) declaration, method, classTree);
+            } else if (declaration.getKind() == Tree.Kind.METHOD) {
+                return new Enclosing(variable, (MethodTree) declaration, classTree);
+            } else {
+                return new Enclosing(variable, method, (ClassTree) declaration);
+            }
+        }
+    }
+
+    /** A declaration and its source range. */
+    private static class Declaration {
+
+        /** The declaration. */
+        final Tree tree;
+
+        /** The start position of the declaration. */
+        final long start;
+
+        /** The end position of the declaration, which might be clipped to its enclosing one. */
+        long end;
+
+        /** The declarations that enclose this one, including this one. Set when it is indexed. */
+        Enclosing enclosing = Enclosing.NONE;
+
+        /**
+         * Creates a declaration.
+         *
+         * @param tree the declaration
+         * @param start the start position of the declaration
+         * @param end the end position of the declaration
+         */
+        Declaration(Tree tree, long start, long end) {
+            this.tree = tree;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** Collects the declarations of a compilation unit that have a source range. */
+    private class DeclarationCollector extends TreeScanner<Void, Void> {
+
+        /** Where to put the declarations. */
+        private final List<Declaration> declarations;
+
+        /**
+         * Creates a collector.
+         *
+         * @param declarations where to put the declarations
+         */
+        DeclarationCollector(List<Declaration> declarations) {
+            this.declarations = declarations;
+        }
+
+        /**
+         * Adds the given declaration, if it has a source range.
+         *
+         * @param tree a variable, method, or class declaration
+         */
+        private void add(Tree tree) {
+            long start = positions.getStartPosition(root, tree);
+            long end = positions.getEndPosition(root, tree);
+            if (start != Diagnostic.NOPOS && end != Diagnostic.NOPOS && start < end) {
+                declarations.add(new Declaration(tree, start, end));
+            }
+        }
+
+        @Override
+        public Void visitClass(ClassTree tree, Void p) {
+            // An anonymous class has an empty name.
+            if (tree.getSimpleName().length() != 0) {
+                add(tree);
+            }
+            return super.visitClass(tree, p);
+        }
+
+        @Override
+        public Void visitMethod(MethodTree tree, Void p) {
+            add(tree);
+            return super.visitMethod(tree, p);
+        }
+
+        @Override
+        public Void visitVariable(VariableTree tree, Void p) {
+            add(tree);
+            return super.visitVariable(tree, p);
+        }
+    }
+}
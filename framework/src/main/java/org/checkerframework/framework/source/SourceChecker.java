@@ -20,12 +20,17 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -69,13 +74,13 @@ import org.checkerframework.framework.qual.AnnotatedFor;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.util.CheckerMain;
 import org.checkerframework.framework.util.OptionConfiguration;
+import org.checkerframework.framework.util.PhaseProfiler;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.SystemUtil;
-import org.checkerframework.javacutil.TreePathUtil;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypeSystemError;
 import org.checkerframework.javacutil.UserError;
@@ -299,6 +304,10 @@ import org.plumelib.util.UtilPlume;
     // org.checkerframework.framework.source.SourceChecker.message(Kind, Object, String, Object...)
     "detailedmsgtext",
 
+    // Also write each diagnostic, as soon as it is issued, as one line of JSON to the given file.
+    // org.checkerframework.framework.source.DiagnosticJsonWriter
+    "jsonDiagnostics",
+
     /// Stub and JDK libraries
 
     // Ignore the standard jdk.astub file; primarily for testing or debugging.
@@ -376,12 +385,33 @@ import org.plumelib.util.UtilPlume;
     // Sets AnnotatedTypeFactory shouldCache to false
     "atfDoNotCache",
 
+    // Discard the dataflow results for each method as soon as the visitor has checked it, or, for
+    // a checker with subcheckers, for each top-level class as soon as all checkers have checked it.
+    // Afterward, the types of the trees in the method are no longer refined, so a checker that
+    // uses this option must not ask for them.
+    // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.releaseFlowResults
+    "releaseFlowResults",
+
     /// Miscellaneous debugging options
 
     // Whether to output resource statistics at JVM shutdown
     // org.checkerframework.framework.source.SourceChecker.shutdownHook()
     "resourceStats",
 
+    // Measure the time spent in each phase of type-checking (CFG construction, dataflow analysis,
+    // tree annotation, defaulting, type argument inference, stub parsing, and the checks of the
+    // visitor), per checker and per top-level class, and write it as JSON when processing is over.
+    // -AprofilePhases writes to standard output; -AprofilePhases=file writes to the given file.
+    // org.checkerframework.framework.util.PhaseProfiler
+    "profilePhases",
+
+    // At the end of compilation, report the N methods, lambdas, and initializers whose dataflow
+    // analysis took the longest, with their source positions, the number of times a basic block
+    // was analyzed, the number of widenings, and the size of the largest store.
+    // -AreportSlowestMethods reports 10; -AreportSlowestMethods=N reports N.
+    // org.checkerframework.framework.util.SlowestAnalysesReport
+    "reportSlowestMethods",
+
     // Parse all JDK files at startup rather than as needed.
     "parseAllJdk",
 
@@ -426,9 +456,28 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     /** The source tree that is being scanned. */
     protected @InternedDistinct CompilationUnitTree currentRoot;
 
+    /**
+     * The declarations of {@link #currentRoot}, indexed by source position, or null if they have
+     * not been indexed yet. Used to decide whether a warning is suppressed.
+     */
+    private @Nullable EnclosingDeclarationIndex enclosingDeclarationIndex;
+
     /** The visitor to use. */
     protected SourceVisitor<?, ?> visitor;
 
+    /**
+     * Measures the time spent in each phase of type-checking, or null if the -AprofilePhases
+     * command-line option was not supplied.
+     */
+    private @Nullable PhaseProfiler phaseProfiler;
+
+    /**
+     * Writes diagnostics to the file given by the -AjsonDiagnostics command-line option, or null if
+     * the option was not supplied or the file has not been opened yet. Only the checker that has no
+     * parent checker opens the file; its subcheckers write to it too.
+     */
+    private @Nullable DiagnosticJsonWriter diagnosticJsonWriter;
+
     /**
      * Exceptions to -AwarnUnneededSuppressions processing. No warning about unneeded suppressions
      * is issued if the SuppressWarnings string matches this pattern.
@@ -613,6 +662,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     @SuppressWarnings("interning:assignment.type.incompatible") // used in == tests
     protected void setRoot(CompilationUnitTree newRoot) {
         this.currentRoot = newRoot;
+        this.enclosingDeclarationIndex = null;
         visitor.setRoot(currentRoot);
     }
 
@@ -875,6 +925,15 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
         this.messager = processingEnv.getMessager();
         this.messagesProperties = getMessagesProperties();
 
+        if (hasOption("profilePhases") && phaseProfiler == null) {
+            phaseProfiler = new PhaseProfiler(getClass().getName());
+        }
+
+        if (parentChecker == null && hasOption("jsonDiagnostics")) {
+            // Create the file even if no diagnostics are issued.
+            getDiagnosticJsonWriter();
+        }
+
         this.visitor = createSourceVisitor();
 
         // Validate the lint flags, if they haven't been used already.
@@ -992,6 +1051,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             }
         }
 
+        if (phaseProfiler != null) {
+            phaseProfiler.setCurrentClass(e.getQualifiedName().toString());
+            phaseProfiler.start(PhaseProfiler.Phase.TYPE_CHECKING);
+        }
         // Visit the attributed tree.
         try {
             visitor.visit(p);
@@ -1008,6 +1071,86 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             // Also add possibly deferred diagnostics, which will get published back in
             // AbstractTypeProcessor.
             this.errsOnLastExit = log.nerrors;
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.TYPE_CHECKING);
+            }
+        }
+    }
+
+    /**
+     * Returns the profiler that measures the time this checker spends in each phase of
+     * type-checking, or null if the -AprofilePhases command-line option was not supplied.
+     *
+     * @return the phase profiler of this checker, or null if phases are not profiled
+     */
+    public @Nullable PhaseProfiler getPhaseProfiler() {
+        return phaseProfiler;
+    }
+
+    /**
+     * Returns the phase profilers of this checker and of all the checkers that it runs, in the
+     * order in which the checkers run. Empty if the -AprofilePhases command-line option was not
+     * supplied.
+     *
+     * @return the phase profilers of this checker and of the checkers that it runs
+     */
+    protected List<PhaseProfiler> getPhaseProfilers() {
+        if (phaseProfiler == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(phaseProfiler);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the -AprofilePhases command-line option was supplied and this checker has no parent
+     * checker, this implementation writes the phase profiles of this checker and of all the
+     * checkers that it runs.
+     */
+    @Override
+    public void typeProcessingOver() {
+        if (parentChecker == null) {
+            List<PhaseProfiler> profilers = getPhaseProfilers();
+            if (!profilers.isEmpty()) {
+                writePhaseProfiles(profilers);
+            }
+            if (diagnosticJsonWriter != null) {
+                try {
+                    diagnosticJsonWriter.close();
+                } catch (IOException e) {
+                    message(
+                            Kind.WARNING,
+                            "Could not close %s: %s",
+                            getOption("jsonDiagnostics"),
+                            e);
+                }
+                diagnosticJsonWriter = null;
+            }
+        }
+        super.typeProcessingOver();
+    }
+
+    /**
+     * Writes the given phase profiles to the file given by the -AprofilePhases command-line option,
+     * or to standard output if the option has no value.
+     *
+     * @param profilers the phase profilers to write
+     */
+    private void writePhaseProfiles(List<PhaseProfiler> profilers) {
+        String filename = getOption("profilePhases");
+        try {
+            if (filename == null) {
+                PhaseProfiler.writeJson(
+                        profilers, new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            } else {
+                try (Writer out =
+                        Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8)) {
+                    PhaseProfiler.writeJson(profilers, out);
+                }
+            }
+        } catch (IOException e) {
+            message(Kind.WARNING, "Could not write the phase profile to %s: %s", filename, e);
         }
     }
 
@@ -1020,7 +1163,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
      *
      * @param source the source position information; may be an Element, a Tree, or null
      * @param messageKey the message key
-     * @param args arguments for interpolation in the string corresponding to the given message key
+     * @param args arguments for interpolation in the string corresponding to the given message key;
+     *     use {@link DiagMessage#deferred} for an argument that is expensive to compute
      */
     public void reportError(Object source, @CompilerMessageKey String messageKey, Object... args) {
         report(source, Kind.ERROR, messageKey, args);
@@ -1031,7 +1175,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
      *
      * @param source the source position information; may be an Element, a Tree, or null
      * @param messageKey the message key
-     * @param args arguments for interpolation in the string corresponding to the given message key
+     * @param args arguments for interpolation in the string corresponding to the given message key;
+     *     use {@link DiagMessage#deferred} for an argument that is expensive to compute
      */
     public void reportWarning(
             Object source, @CompilerMessageKey String messageKey, Object... args) {
@@ -1077,7 +1222,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
 
         if (args != null) {
             for (int i = 0; i < args.length; ++i) {
-                args[i] = processArg(args[i]);
+                args[i] = processArg(DiagMessage.resolveArg(args[i]));
             }
         }
 
@@ -1118,15 +1263,107 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             kind = Kind.MANDATORY_WARNING;
         }
 
+        String jsonDiagnostic =
+                hasOption("jsonDiagnostics")
+                        ? jsonDiagnostic(
+                                source,
+                                kind,
+                                messageKey,
+                                fullMessageOf(messageKey, defaultFormat),
+                                args)
+                        : null;
+
         if (source instanceof Element) {
             messager.printMessage(kind, messageText, (Element) source);
+            if (jsonDiagnostic != null) {
+                writeJsonDiagnostic(jsonDiagnostic);
+            }
         } else if (source instanceof Tree) {
-            printOrStoreMessage(kind, messageText, (Tree) source, currentRoot);
+            printOrStoreMessage(kind, messageText, jsonDiagnostic, (Tree) source, currentRoot);
         } else {
             throw new BugInCF("invalid position source, class=" + source.getClass());
         }
     }
 
+    /**
+     * Returns a diagnostic in the format of the -AjsonDiagnostics command-line option. The
+     * diagnostic is formatted when it is reported, because its position is relative to the current
+     * compilation unit; it is written by {@link #writeJsonDiagnostic} when it is printed, so that a
+     * diagnostic that a compound checker discards as a duplicate is not written.
+     *
+     * @param source the source position information; may be an Element or a Tree
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param messageFormat the format string of the human-readable message
+     * @param args the arguments of the message
+     * @return the diagnostic as a JSON object
+     */
+    private String jsonDiagnostic(
+            Object source,
+            javax.tools.Diagnostic.Kind kind,
+            String messageKey,
+            String messageFormat,
+            Object[] args) {
+        Tree tree = sourceToTree(source);
+        CompilationUnitTree root = currentRoot;
+        if (source instanceof Element) {
+            TreePath path = trees.getPath((Element) source);
+            root = path == null ? null : path.getCompilationUnit();
+        }
+        return DiagnosticJsonWriter.toJson(
+                getClass().getName(),
+                kind,
+                messageKey,
+                messageFormat,
+                String.format(messageFormat, args),
+                args,
+                tree,
+                root,
+                trees.getSourcePositions());
+    }
+
+    /**
+     * Writes a diagnostic to the file given by the -AjsonDiagnostics command-line option.
+     *
+     * @param jsonDiagnostic a diagnostic returned by {@link #jsonDiagnostic}
+     */
+    private void writeJsonDiagnostic(String jsonDiagnostic) {
+        try {
+            getDiagnosticJsonWriter().write(jsonDiagnostic);
+        } catch (IOException e) {
+            throw new UserError(
+                    "Could not write to %s: %s", getOption("jsonDiagnostics"), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the writer for the -AjsonDiagnostics command-line option, which is shared with the
+     * parent checker if there is one. Opens the file on first use. Call only if the option was
+     * supplied.
+     *
+     * @return the writer for the -AjsonDiagnostics command-line option
+     */
+    private DiagnosticJsonWriter getDiagnosticJsonWriter() {
+        if (parentChecker != null) {
+            return parentChecker.getDiagnosticJsonWriter();
+        }
+        if (diagnosticJsonWriter == null) {
+            String filename = getOption("jsonDiagnostics");
+            if (filename == null) {
+                throw new UserError("-AjsonDiagnostics requires a file name");
+            }
+            try {
+                diagnosticJsonWriter =
+                        new DiagnosticJsonWriter(
+                                Files.newBufferedWriter(
+                                        Paths.get(filename), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UserError("Could not open %s: %s", filename, e.getMessage());
+            }
+        }
+        return diagnosticJsonWriter;
+    }
+
     /**
      * Print a non-localized message using the javac messager. This is preferable to using
      * System.out or System.err, but should only be used for exceptional cases that don't happen in
@@ -1182,16 +1419,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
      *
      * @param kind the kind of message to print
      * @param message the message text
+     * @param jsonDiagnostic the message in the format of the -AjsonDiagnostics command-line option,
+     *     or null if the option was not supplied
      * @param source the source code position of the diagnostic message
      * @param root the compilation unit
      */
     protected void printOrStoreMessage(
             javax.tools.Diagnostic.Kind kind,
             String message,
+            @Nullable String jsonDiagnostic,
             Tree source,
             CompilationUnitTree root) {
         StackTraceElement[] trace = Thread.currentThread().getStackTrace();
-        printOrStoreMessage(kind, message, source, root, trace);
+        printOrStoreMessage(kind, message, jsonDiagnostic, source, root, trace);
     }
 
     /**
@@ -1201,6 +1441,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
      *
      * @param kind the kind of message to print
      * @param message the message text
+     * @param jsonDiagnostic the message in the format of the -AjsonDiagnostics command-line option,
+     *     or null if the option was not supplied
      * @param source the source code position of the diagnostic message
      * @param root the compilation unit
      * @param trace the stack trace where the checker encountered an error
@@ -1208,10 +1450,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     protected void printOrStoreMessage(
             javax.tools.Diagnostic.Kind kind,
             String message,
+            @Nullable String jsonDiagnostic,
             Tree source,
             CompilationUnitTree root,
             StackTraceElement[] trace) {
         Trees.instance(processingEnv).printMessage(kind, message, source, root);
+        if (jsonDiagnostic != null) {
+            writeJsonDiagnostic(jsonDiagnostic);
+        }
         printStackTrace(trace);
     }
 
@@ -2057,15 +2303,14 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             return true;
         }
 
-        // trees.getPath might be slow, but this is only used in error reporting
-        @Nullable TreePath path = trees.getPath(this.currentRoot, tree);
+        EnclosingDeclarationIndex.Enclosing enclosing = getEnclosingDeclarations(tree);
 
-        @Nullable VariableTree var = TreePathUtil.enclosingVariable(path);
+        @Nullable VariableTree var = enclosing.variable;
         if (var != null && shouldSuppressWarnings(TreeUtils.elementFromTree(var), errKey)) {
             return true;
         }
 
-        @Nullable MethodTree method = TreePathUtil.enclosingMethod(path);
+        @Nullable MethodTree method = enclosing.method;
         if (method != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(method);
 
@@ -2081,7 +2326,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             }
         }
 
-        @Nullable ClassTree cls = TreePathUtil.enclosingClass(path);
+        @Nullable ClassTree cls = enclosing.classTree;
         if (cls != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(cls);
 
@@ -2106,6 +2351,29 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
         return false;
     }
 
+    /**
+     * Returns the innermost variable, method, and class declarations that enclose the given tree in
+     * the current compilation unit. Uses {@link #enclosingDeclarationIndex}, which is built the
+     * first time this method is called for a compilation unit, unless the tree has no source
+     * position.
+     *
+     * @param tree a tree in the current compilation unit
+     * @return the innermost declarations that enclose {@code tree}
+     */
+    private EnclosingDeclarationIndex.Enclosing getEnclosingDeclarations(Tree tree) {
+        if (enclosingDeclarationIndex == null
+                || enclosingDeclarationIndex.getRoot() != currentRoot) {
+            enclosingDeclarationIndex =
+                    new EnclosingDeclarationIndex(currentRoot, trees.getSourcePositions());
+        }
+        EnclosingDeclarationIndex.Enclosing result = enclosingDeclarationIndex.lookup(tree);
+        if (result == null) {
+            // trees.getPath is slow, but few trees have no source position.
+            result = EnclosingDeclarationIndex.Enclosing.of(trees.getPath(currentRoot, tree));
+        }
+        return result;
+    }
+
     /**
      * Should conservative defaults be used for the kind of unchecked code indicated by the
      * parameter?
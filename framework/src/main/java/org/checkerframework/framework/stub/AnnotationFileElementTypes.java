@@ -41,6 +41,7 @@ import org.checkerframework.framework.stub.AnnotationFileParser.AnnotationFileAn
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.util.PhaseProfiler;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.Pair;
@@ -496,11 +497,31 @@ public class AnnotationFileElementTypes {
             return;
         }
         if (jdkStubFiles.containsKey(className)) {
-            parseStubFile(jdkStubFiles.get(className));
-            jdkStubFiles.remove(className);
+            PhaseProfiler profiler = factory.getChecker().getPhaseProfiler();
+            if (profiler != null) {
+                profiler.start(PhaseProfiler.Phase.STUB_PARSING);
+            }
+            try {
+                parseStubFile(jdkStubFiles.get(className));
+                jdkStubFiles.remove(className);
+            } finally {
+                if (profiler != null) {
+                    profiler.stop(PhaseProfiler.Phase.STUB_PARSING);
+                }
+            }
         } else if (jdkStubFilesJar.containsKey(className)) {
-            parseJarEntry(jdkStubFilesJar.get(className));
-            jdkStubFilesJar.remove(className);
+            PhaseProfiler profiler = factory.getChecker().getPhaseProfiler();
+            if (profiler != null) {
+                profiler.start(PhaseProfiler.Phase.STUB_PARSING);
+            }
+            try {
+                parseJarEntry(jdkStubFilesJar.get(className));
+                jdkStubFilesJar.remove(className);
+            } finally {
+                if (profiler != null) {
+                    profiler.stop(PhaseProfiler.Phase.STUB_PARSING);
+                }
+            }
         }
     }
 
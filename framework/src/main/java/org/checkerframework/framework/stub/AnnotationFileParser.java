@@ -54,10 +54,15 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.VariableTree;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Target;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -103,6 +108,7 @@ import org.checkerframework.framework.util.element.ElementAnnotationUtil.ErrorTy
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
@@ -238,6 +244,40 @@ public class AnnotationFileParser {
     /** Whether or not the file is a stub file that's part of the JDK. */
     private final boolean isJdkAsStub;
 
+    /** The maximum number of stub file ASTs in {@link #stubUnitCache}. */
+    private static final int STUB_UNIT_CACHE_SIZE = 1000;
+
+    /**
+     * Maps the name of a stub file to its contents and its AST, so that a stub file that is used
+     * more than once in the same JVM is parsed only once. Accesses must be synchronized on this
+     * map, because several compilations may run concurrently in one JVM.
+     */
+    private static final Map<String, CachedStubUnit> stubUnitCache =
+            CollectionUtils.createLRUCache(STUB_UNIT_CACHE_SIZE);
+
+    /** The contents of a stub file, together with the AST that results from parsing them. */
+    private static class CachedStubUnit {
+        /** The contents of the stub file. */
+        final byte[] contents;
+
+        /**
+         * The AST of {@link #contents}. It is softly reachable so that the garbage collector can
+         * reclaim it when memory is low.
+         */
+        final SoftReference<StubUnit> stubUnit;
+
+        /**
+         * Creates a new CachedStubUnit.
+         *
+         * @param contents the contents of the stub file
+         * @param stubUnit the AST of {@code contents}
+         */
+        CachedStubUnit(byte[] contents, StubUnit stubUnit) {
+            this.contents = contents;
+            this.stubUnit = new SoftReference<>(stubUnit);
+        }
+    }
+
     /**
      * The result of calling AnnotationFileParser.parse: the annotated types and declaration
      * annotations from the file.
@@ -621,7 +661,13 @@ public class AnnotationFileParser {
         if (debugAnnotationFileParser) {
             stubDebug(String.format("parsing stub file %s", filename));
         }
-        stubUnit = StaticJavaParser.parseStubUnit(inputStream);
+        if (isParsingStubFile) {
+            stubUnit = parseStubUnitCached(filename, inputStream);
+        } else {
+            // Don't cache ajava files:  JavaParserUtils.concatenateAddedStringLiterals modifies
+            // their AST.
+            stubUnit = StaticJavaParser.parseStubUnit(inputStream);
+        }
 
         // getAllAnnotations() also modifies importedConstants and importedTypes. This should
         // be refactored to be nicer.
@@ -639,6 +685,48 @@ public class AnnotationFileParser {
         allAnnotations.putAll(annosInPackage(findPackage("java.lang", null)));
     }
 
+    /**
+     * Parses the given stub file to an AST, or returns the AST from a previous parse of a file with
+     * the same name and contents. Reusing the AST avoids re-parsing the same stub files, such as
+     * jdk.astub and the annotated JDK, once for each subchecker of a compound checker and once for
+     * each compilation that runs in the same JVM (for example, in a build daemon).
+     *
+     * <p>The AST is not modified while processing a stub file, so it can be shared.
+     *
+     * @param filename name of the stub file; the cache key
+     * @param inputStream the stream from which to read the stub file
+     * @return the AST of the stub file
+     */
+    private static StubUnit parseStubUnitCached(String filename, InputStream inputStream) {
+        byte[] contents;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            contents = out.toByteArray();
+        } catch (IOException e) {
+            throw new BugInCF("cannot read the stub file " + filename, e);
+        }
+
+        synchronized (stubUnitCache) {
+            CachedStubUnit cached = stubUnitCache.get(filename);
+            if (cached != null && Arrays.equals(cached.contents, contents)) {
+                StubUnit result = cached.stubUnit.get();
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        StubUnit result = StaticJavaParser.parseStubUnit(new ByteArrayInputStream(contents));
+        synchronized (stubUnitCache) {
+            stubUnitCache.put(filename, new CachedStubUnit(contents, result));
+        }
+        return result;
+    }
+
     /**
      * Process {@link #stubUnit}, which is the AST produced by {@link #parseStubUnit}. Processing
      * means copying annotations from Stub Parser data structures to {@code annotationFileAnnos}.
@@ -104,8 +104,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitDeclared(
             AnnotatedDeclaredType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedDeclaredType copy = makeOrReturnCopy(original, originalToCopy);
@@ -134,8 +135,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitIntersection(
             AnnotatedIntersectionType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedIntersectionType copy = makeOrReturnCopy(original, originalToCopy);
@@ -155,8 +157,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitUnion(
             AnnotatedUnionType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedUnionType copy = makeOrReturnCopy(original, originalToCopy);
@@ -176,8 +179,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitExecutable(
             AnnotatedExecutableType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedExecutableType copy = makeOrReturnCopy(original, originalToCopy);
@@ -217,8 +221,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitArray(
             AnnotatedArrayType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedArrayType copy = makeOrReturnCopy(original, originalToCopy);
@@ -232,8 +237,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitTypeVariable(
             AnnotatedTypeVariable original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedTypeVariable copy = makeOrReturnCopy(original, originalToCopy);
@@ -276,8 +282,9 @@ public class AnnotatedTypeCopier
     public AnnotatedTypeMirror visitWildcard(
             AnnotatedWildcardType original,
             IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return existingCopy;
         }
 
         final AnnotatedWildcardType copy = makeOrReturnCopy(original, originalToCopy);
@@ -318,8 +325,9 @@ public class AnnotatedTypeCopier
     @SuppressWarnings("unchecked")
     protected <T extends AnnotatedTypeMirror> T makeOrReturnCopy(
             T original, IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror> originalToCopy) {
-        if (originalToCopy.containsKey(original)) {
-            return (T) originalToCopy.get(original);
+        AnnotatedTypeMirror existingCopy = originalToCopy.get(original);
+        if (existingCopy != null) {
+            return (T) existingCopy;
         }
 
         final T copy = makeCopy(original);
@@ -353,7 +361,10 @@ public class AnnotatedTypeCopier
     protected void maybeCopyPrimaryAnnotations(
             final AnnotatedTypeMirror source, final AnnotatedTypeMirror dest) {
         if (copyAnnotations) {
-            dest.addAnnotations(source.getAnnotationsField());
+            // Every annotation of source was validated and interned by the type factory when it was
+            // added to source, and dest has the same type factory, so the annotations can be copied
+            // directly rather than by addAnnotations.
+            dest.annotations.addAll(source.annotations);
         }
     }
 }
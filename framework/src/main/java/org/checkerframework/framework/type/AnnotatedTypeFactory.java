@@ -40,6 +40,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.regex.Matcher;
@@ -101,6 +102,7 @@ import org.checkerframework.framework.util.AnnotationFormatter;
 import org.checkerframework.framework.util.CheckerMain;
 import org.checkerframework.framework.util.DefaultAnnotationFormatter;
 import org.checkerframework.framework.util.FieldInvariants;
+import org.checkerframework.framework.util.PhaseProfiler;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.framework.util.typeinference.DefaultTypeArgumentInference;
 import org.checkerframework.framework.util.typeinference.TypeArgInferenceUtil;
@@ -111,6 +113,7 @@ import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.LRUCache;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreePathUtil;
 import org.checkerframework.javacutil.TreeUtils;
@@ -234,6 +237,13 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     private final Set<@CanonicalName String> supportedQualNames;
 
+    /**
+     * Canonical instances of qualifiers that have no element values, keyed by the annotation's type
+     * element. Interning qualifiers lets comparisons of the same qualifier succeed by reference
+     * equality, without comparing names. See {@link #internQualifier}.
+     */
+    private final Map<Element, AnnotationMirror> internedQualifiers = new HashMap<>();
+
     /** Parses stub files and stores annotations on public elements from stub files. */
     public final AnnotationFileElementTypes stubTypes;
 
@@ -264,6 +274,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     /** The checker to use for option handling and resource management. */
     protected final BaseTypeChecker checker;
 
+    /**
+     * Measures the time spent in each phase of type-checking, or null if the -AprofilePhases
+     * command-line option was not supplied. The same as {@code checker.getPhaseProfiler()}.
+     */
+    protected final @Nullable PhaseProfiler phaseProfiler;
+
     /** Map keys are canonical names of aliased annotations. */
     private final Map<@FullyQualifiedName String, Alias> aliases = new HashMap<>();
 
@@ -395,8 +411,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     private final Map<Element, AnnotatedTypeMirror> elementCache;
 
-    /** Mapping from an Element to the source Tree of the declaration. */
-    private final Map<Element, Tree> elementToTreeCache;
+    /**
+     * Mapping from an Element to the source Tree of the declaration, or to an empty Optional if the
+     * declaration is not in source. An absent declaration is cached too, so that a lookup of such
+     * an element is a single {@code get} that counts as a hit.
+     */
+    private final Map<Element, Optional<Tree>> elementToTreeCache;
 
     /** Mapping from a Tree to its TreePath. Shared between all instances. */
     private final TreePathCacher treePathCache;
@@ -440,6 +460,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.processingEnv = checker.getProcessingEnvironment();
         // this.root = root;
         this.checker = checker;
+        this.phaseProfiler = checker.getPhaseProfiler();
         this.trees = Trees.instance(processingEnv);
         this.elements = processingEnv.getElementUtils();
         this.types = processingEnv.getTypeUtils();
@@ -603,6 +624,13 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     "AnnotatedTypeFactory: invalid qualifier hierarchy: %s %s ",
                     qualHierarchy.getClass(), qualHierarchy);
         }
+        // Prefer the qualifier hierarchy's instances, which are returned by lub, glb, etc.
+        for (AnnotationMirror top : qualHierarchy.getTopAnnotations()) {
+            internQualifier(top);
+        }
+        for (AnnotationMirror bottom : qualHierarchy.getBottomAnnotations()) {
+            internQualifier(bottom);
+        }
         this.typeHierarchy = createTypeHierarchy();
         this.typeVarSubstitutor = createTypeVariableSubstitutor();
         this.typeArgumentInference = createTypeArgumentInference();
@@ -1076,6 +1104,41 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         }
     }
 
+    /**
+     * Returns statistics about the caches of this type factory, one line per cache. Printed at JVM
+     * shutdown if the {@code -AresourceStats} command-line option is provided, to help tune {@code
+     * -AatfCacheSize}.
+     *
+     * @return statistics about the caches of this type factory
+     */
+    public List<String> getCacheStatistics() {
+        List<String> result = new ArrayList<>();
+        if (shouldCache) {
+            addCacheStatistics(result, "classAndMethodTreeCache", classAndMethodTreeCache);
+            addCacheStatistics(result, "fromExpressionTreeCache", fromExpressionTreeCache);
+            addCacheStatistics(result, "fromMemberTreeCache", fromMemberTreeCache);
+            addCacheStatistics(result, "fromTypeTreeCache", fromTypeTreeCache);
+            addCacheStatistics(result, "elementCache", elementCache);
+            addCacheStatistics(result, "elementToTreeCache", elementToTreeCache);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a line with the statistics of the given cache to {@code statistics}, if the cache
+     * records statistics.
+     *
+     * @param statistics the list of lines to add to
+     * @param name the name of the cache
+     * @param cache a cache
+     */
+    protected static void addCacheStatistics(
+            List<String> statistics, String name, Map<?, ?> cache) {
+        if (cache instanceof LRUCache) {
+            statistics.add(name + ": " + ((LRUCache<?, ?>) cache).getStatistics());
+        }
+    }
+
     /**
      * Returns an AnnotatedTypeMirror representing the annotated type of {@code elt}.
      *
@@ -1124,8 +1187,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (tree == null) {
             throw new BugInCF("AnnotatedTypeFactory.getAnnotatedType: null tree");
         }
-        if (shouldCache && classAndMethodTreeCache.containsKey(tree)) {
-            return classAndMethodTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = classAndMethodTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror type;
@@ -1261,8 +1327,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = elementCache.get(elt);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
@@ -1353,8 +1422,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     "AnnotatedTypeFactory.fromMember: not a method or variable declaration: "
                             + tree);
         }
-        if (shouldCache && fromMemberTreeCache.containsKey(tree)) {
-            return fromMemberTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromMemberTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         AnnotatedTypeMirror result = TypeFromTree.fromMember(this, tree);
 
@@ -1436,8 +1508,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @see TypeFromExpressionVisitor
      */
     private AnnotatedTypeMirror fromExpression(ExpressionTree tree) {
-        if (shouldCache && fromExpressionTreeCache.containsKey(tree)) {
-            return fromExpressionTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromExpressionTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromExpression(this, tree);
@@ -1466,8 +1541,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return the (partially) annotated type of the type in the AST
      */
     /*package private*/ final AnnotatedTypeMirror fromTypeTree(Tree tree) {
-        if (shouldCache && fromTypeTreeCache.containsKey(tree)) {
-            return fromTypeTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromTypeTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromTypeTree(this, tree);
@@ -2913,6 +2991,25 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         return isSupportedQualifier(AnnotationUtils.annotationName(a));
     }
 
+    /**
+     * Returns the canonical instance of the given qualifier, if it has no element values; otherwise
+     * returns the qualifier itself. The result is the same annotation as {@code a}, according to
+     * {@link AnnotationUtils#areSame}. The first qualifier of a given annotation type that is passed
+     * to this method becomes the canonical instance.
+     *
+     * @param a a qualifier
+     * @return an annotation that is the same as {@code a}, and that is the same object for every
+     *     call with the same element-less qualifier
+     */
+    public AnnotationMirror internQualifier(AnnotationMirror a) {
+        if (!a.getElementValues().isEmpty()) {
+            return a;
+        }
+        AnnotationMirror canonical =
+                internedQualifiers.putIfAbsent(a.getAnnotationType().asElement(), a);
+        return canonical == null ? a : canonical;
+    }
+
     /**
      * Determines whether the given class is a part of the type system under which this type factory
      * operates.
@@ -3251,8 +3348,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (root == null) {
             return null;
         }
-        if (shouldCache && elementToTreeCache.containsKey(elt)) {
-            return elementToTreeCache.get(elt);
+        if (shouldCache) {
+            Optional<Tree> cached = elementToTreeCache.get(elt);
+            if (cached != null) {
+                return cached.orElse(null);
+            }
         }
 
         // Check for new declarations, outside of the AST.
@@ -3284,7 +3384,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                 break;
         }
         if (shouldCache) {
-            elementToTreeCache.put(elt, fromElt);
+            elementToTreeCache.put(elt, Optional.ofNullable(fromElt));
         }
         return fromElt;
     }
@@ -3528,8 +3628,17 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * <p>The annotations are stored by side-effecting {@link #stubTypes} and {@link #ajavaTypes}.
      */
     protected void parseAnnotationFiles() {
-        stubTypes.parseStubFiles();
-        ajavaTypes.parseAjavaFiles();
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.STUB_PARSING);
+        }
+        try {
+            stubTypes.parseStubFiles();
+            ajavaTypes.parseAjavaFiles();
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.STUB_PARSING);
+            }
+        }
     }
 
     /**
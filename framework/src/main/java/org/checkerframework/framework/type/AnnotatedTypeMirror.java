@@ -562,7 +562,7 @@ public abstract class AnnotatedTypeMirror {
             throw new BugInCF("AnnotatedTypeMirror.addAnnotation: null argument.");
         }
         if (atypeFactory.isSupportedQualifier(a)) {
-            this.annotations.add(a);
+            this.annotations.add(atypeFactory.internQualifier(a));
         } else {
             AnnotationMirror aliased = atypeFactory.canonicalAnnotation(a);
             if (atypeFactory.isSupportedQualifier(aliased)) {
@@ -100,6 +100,8 @@ import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.ContractsFromMethod;
 import org.checkerframework.framework.util.JavaExpressionParseUtil;
 import org.checkerframework.framework.util.JavaExpressionParseUtil.JavaExpressionParseException;
+import org.checkerframework.framework.util.PhaseProfiler;
+import org.checkerframework.framework.util.SlowestAnalysesReport;
 import org.checkerframework.framework.util.defaults.QualifierDefaults;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesTreeAnnotator;
@@ -282,10 +284,26 @@ public abstract class GenericAnnotatedTypeFactory<
      * any checker for which getParentChecker() returns non-null). This map is also unused (and
      * therefore null) for a checker with no subcheckers with which it can share CFGs.
      *
+     * <p>The map holds the CFGs of one compilation unit: it is cleared when the first subchecker
+     * starts checking the next compilation unit. See {@link #shouldClearSubcheckerSharedCFGs}.
+     *
      * <p>The initial capacity of the map is set by {@link #getCacheSize()}.
      */
     protected @Nullable Map<Tree, ControlFlowGraph> subcheckerSharedCFG;
 
+    /**
+     * The number of control flow graphs that were added to {@link #subcheckerSharedCFG}; that is,
+     * the number of control flow graphs that were built for this checker and its subcheckers. Only
+     * maintained by the ultimate parent checker.
+     */
+    private long sharedCFGBuildCount = 0;
+
+    /**
+     * The number of times a control flow graph in {@link #subcheckerSharedCFG} was reused rather
+     * than built again. Only maintained by the ultimate parent checker.
+     */
+    private long sharedCFGReuseCount = 0;
+
     /**
      * If true, {@link #setRoot(CompilationUnitTree)} should clear the {@link #subcheckerSharedCFG}
      * map, freeing memory.
@@ -301,6 +319,12 @@ public abstract class GenericAnnotatedTypeFactory<
      */
     protected boolean shouldClearSubcheckerSharedCFGs = true;
 
+    /**
+     * The slowest dataflow analyses performed by this type factory, or null if the
+     * -AreportSlowestMethods command-line option was not supplied.
+     */
+    private final @Nullable SlowestAnalysesReport slowestAnalyses;
+
     /**
      * Creates a type factory. Its compilation unit is not yet set.
      *
@@ -327,6 +351,24 @@ public abstract class GenericAnnotatedTypeFactory<
 
         this.cfgVisualizer = createCFGVisualizer();
 
+        // The dataflow results of a subchecker are used by its parent checker after the subchecker
+        // has checked the whole class, so they can only be released per class; see
+        // BaseTypeChecker#typeProcess.
+        this.unreleasedMethodCFGs =
+                checker.hasOption("releaseFlowResults")
+                                && checker.getParentChecker() == null
+                                && checker.getSubcheckers().isEmpty()
+                        ? new IdentityHashMap<>()
+                        : null;
+
+        this.slowestAnalyses =
+                checker.hasOption("reportSlowestMethods")
+                        ? new SlowestAnalysesReport(
+                                checker.getClass().getSimpleName(),
+                                SlowestAnalysesReport.parseLimit(
+                                        checker.getOption("reportSlowestMethods")))
+                        : null;
+
         if (shouldCache) {
             int cacheSize = getCacheSize();
             flowResultAnalysisCaches = CollectionUtils.createLRUCache(cacheSize);
@@ -422,6 +464,9 @@ public abstract class GenericAnnotatedTypeFactory<
         this.returnStatementStores = null;
         this.initializationStore = null;
         this.initializationStaticStore = null;
+        if (unreleasedMethodCFGs != null) {
+            unreleasedMethodCFGs.clear();
+        }
 
         if (shouldCache) {
             this.flowResultAnalysisCaches.clear();
@@ -445,6 +490,38 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    @Override
+    public List<String> getCacheStatistics() {
+        List<String> result = super.getCacheStatistics();
+        if (shouldCache) {
+            addCacheStatistics(result, "flowResultAnalysisCaches", flowResultAnalysisCaches);
+            addCacheStatistics(result, "initializerCache", initializerCache);
+        }
+        if (hasOrIsSubchecker && checker.getParentChecker() == null) {
+            result.add(
+                    String.format(
+                            "subcheckerSharedCFG: %d CFGs built, %d CFG builds saved by sharing",
+                            sharedCFGBuildCount, sharedCFGReuseCount));
+        }
+        if (checker.getParentChecker() == null) {
+            // The cache is shared by all checkers, so only the ultimate parent reports it.
+            result.add(
+                    "JavaExpressionParseUtil.parsedExpressions: "
+                            + JavaExpressionParseUtil.getParseCacheStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slowest dataflow analyses performed by this type factory, or null if the
+     * -AreportSlowestMethods command-line option was not supplied.
+     *
+     * @return the slowest dataflow analyses performed by this type factory, or null
+     */
+    public @Nullable SlowestAnalysesReport getSlowestAnalysesReport() {
+        return slowestAnalyses;
+    }
+
     /**
      * Clears the caches associated with the shared CFG for the given type factory, if it is safe to
      * do so.
@@ -1049,6 +1126,69 @@ public abstract class GenericAnnotatedTypeFactory<
      */
     protected IdentityHashMap<MethodInvocationTree, Store> methodInvocationStores;
 
+    /**
+     * The control flow graphs of the methods whose dataflow results are in {@link #flowResult} and
+     * have not yet been released by {@link #releaseFlowResults(MethodTree)}. Null unless the
+     * results of individual methods are released, which happens only if the {@code
+     * -AreleaseFlowResults} command-line option is provided and this checker neither has nor is a
+     * subchecker.
+     */
+    private final @Nullable IdentityHashMap<MethodTree, ControlFlowGraph> unreleasedMethodCFGs;
+
+    /**
+     * Discards the dataflow results for the given method, if the {@code -AreleaseFlowResults}
+     * command-line option is provided and this checker neither has nor is a subchecker. The visitor
+     * calls this method after it has checked the method, so that the results for a large class do
+     * not all have to be in memory at the same time. Afterward, the results for code in the method
+     * are no longer available; its exit stores are kept, because checks of the enclosing class may
+     * need them.
+     *
+     * <p>The class is not re-analyzed when the results are needed again: afterward, {@link
+     * #getAnnotatedType(Tree)} silently returns the unrefined type of a tree in the method. So
+     * with {@code -AreleaseFlowResults}, a checker must not ask for the type of a tree in a method
+     * after the visitor has finished scanning the method, for example in a check of the whole
+     * class, in an override of {@code BaseTypeVisitor#scan} after the call to super, or in a
+     * {@code processClassTree} override after the call to super.
+     *
+     * @param method a method that the visitor has finished checking
+     */
+    public void releaseFlowResults(MethodTree method) {
+        if (unreleasedMethodCFGs == null) {
+            return;
+        }
+        ControlFlowGraph cfg = unreleasedMethodCFGs.remove(method);
+        if (cfg != null && flowResult != null) {
+            flowResult.removeResultsFor(cfg);
+        }
+    }
+
+    /**
+     * Discards the dataflow results for all classes of the current compilation unit that have been
+     * analyzed so far, as well as the control flow graphs that this checker shares with its
+     * subcheckers. If the results are needed again, the classes are re-analyzed.
+     *
+     * <p>If the {@code -AreleaseFlowResults} command-line option is provided, a checker that has
+     * subcheckers calls this method on itself and on its subcheckers after all of them have checked
+     * a top-level class.
+     */
+    public void releaseFlowResults() {
+        this.scannedClasses.clear();
+        this.flowResult = null;
+        this.regularExitStores = null;
+        this.exceptionalExitStores = null;
+        this.methodInvocationStores = null;
+        this.returnStatementStores = null;
+        if (unreleasedMethodCFGs != null) {
+            unreleasedMethodCFGs.clear();
+        }
+        if (shouldCache) {
+            this.flowResultAnalysisCaches.clear();
+        }
+        if (subcheckerSharedCFG != null) {
+            subcheckerSharedCFG.clear();
+        }
+    }
+
     /**
      * Returns the regular exit store for a method or another code block (such as static
      * initializers).
@@ -1457,7 +1597,18 @@ public abstract class GenericAnnotatedTypeFactory<
             boolean updateInitializationStore,
             boolean isStatic,
             Store capturedStore) {
-        ControlFlowGraph cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        long startTime = slowestAnalyses == null ? 0 : System.nanoTime();
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.CFG_CONSTRUCTION);
+        }
+        ControlFlowGraph cfg;
+        try {
+            cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.CFG_CONSTRUCTION);
+            }
+        }
 
         if (isInitializationCode) {
             Store initStore = !isStatic ? initializationStore : initializationStaticStore;
@@ -1472,7 +1623,29 @@ public abstract class GenericAnnotatedTypeFactory<
         } else {
             transfer.setFixedInitialStore(capturedStore);
         }
-        analysis.performAnalysis(cfg, fieldValues);
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.DATAFLOW);
+        }
+        try {
+            analysis.performAnalysis(cfg, fieldValues);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.DATAFLOW);
+            }
+        }
+        if (slowestAnalyses != null) {
+            long nanos = System.nanoTime() - startTime;
+            if (slowestAnalyses.isAmongSlowest(nanos)) {
+                slowestAnalyses.add(
+                        ast,
+                        root,
+                        trees.getSourcePositions(),
+                        nanos,
+                        analysis.getBlockAnalysisCount(),
+                        analysis.getWideningCount(),
+                        analysis.getLargestStoreSize());
+            }
+        }
         AnalysisResult<Value, Store> result = analysis.getResult();
 
         // store result
@@ -1481,6 +1654,9 @@ public abstract class GenericAnnotatedTypeFactory<
             // store exit store (for checking postconditions)
             CFGMethod mast = (CFGMethod) ast;
             MethodTree method = mast.getMethod();
+            if (unreleasedMethodCFGs != null) {
+                unreleasedMethodCFGs.put(method, cfg);
+            }
             Store regularExitStore = analysis.getRegularExitStore();
             if (regularExitStore != null) {
                 regularExitStores.put(method, regularExitStore);
@@ -1760,16 +1936,34 @@ public abstract class GenericAnnotatedTypeFactory<
         }
         applyQualifierParameterDefaults(tree, type);
         log("%s GATF.addComputedTypeAnnotations#3(%s, %s)%n", thisClass, treeString, type);
-        treeAnnotator.visit(tree, type);
-        log("%s GATF.addComputedTypeAnnotations#4(%s, %s)%n", thisClass, treeString, type);
-        if (TreeUtils.isExpressionTree(tree)) {
-            // If a tree annotator, did not add a type, add the DefaultForUse default.
-            addAnnotationsFromDefaultForType(TreeUtils.elementFromTree(tree), type);
-            log("%s GATF.addComputedTypeAnnotations#5(%s, %s)%n", thisClass, treeString, type);
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.TREE_ANNOTATION);
+        }
+        try {
+            treeAnnotator.visit(tree, type);
+            log("%s GATF.addComputedTypeAnnotations#4(%s, %s)%n", thisClass, treeString, type);
+            if (TreeUtils.isExpressionTree(tree)) {
+                // If a tree annotator, did not add a type, add the DefaultForUse default.
+                addAnnotationsFromDefaultForType(TreeUtils.elementFromTree(tree), type);
+                log("%s GATF.addComputedTypeAnnotations#5(%s, %s)%n", thisClass, treeString, type);
+            }
+            typeAnnotator.visit(type, null);
+            log("%s GATF.addComputedTypeAnnotations#6(%s, %s)%n", thisClass, treeString, type);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.TREE_ANNOTATION);
+            }
+        }
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.DEFAULTING);
+        }
+        try {
+            defaults.annotate(tree, type);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.DEFAULTING);
+            }
         }
-        typeAnnotator.visit(type, null);
-        log("%s GATF.addComputedTypeAnnotations#6(%s, %s)%n", thisClass, treeString, type);
-        defaults.annotate(tree, type);
         log("%s GATF.addComputedTypeAnnotations#7(%s, %s)%n", thisClass, treeString, type);
 
         if (iUseFlow) {
@@ -1939,10 +2133,9 @@ public abstract class GenericAnnotatedTypeFactory<
 
         VariableElement variableElt = (VariableElement) elt;
         variablesUnderInitialization.add(variableElt);
-        AnnotatedTypeMirror initializerType;
-        if (shouldCache && initializerCache.containsKey(initializer)) {
-            initializerType = initializerCache.get(initializer);
-        } else {
+        AnnotatedTypeMirror initializerType =
+                shouldCache ? initializerCache.get(initializer) : null;
+        if (initializerType == null) {
             // When this method is called by getAnnotatedTypeLhs, flow is turned off.
             // Turn it back on so the type of the initializer is the refined type.
             boolean oldUseFlow = useFlow;
@@ -1982,8 +2175,26 @@ public abstract class GenericAnnotatedTypeFactory<
     public void addComputedTypeAnnotations(Element elt, AnnotatedTypeMirror type) {
         addAnnotationsFromDefaultForType(elt, type);
         applyQualifierParameterDefaults(elt, type);
-        typeAnnotator.visit(type, null);
-        defaults.annotate(elt, type);
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.TREE_ANNOTATION);
+        }
+        try {
+            typeAnnotator.visit(type, null);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.TREE_ANNOTATION);
+            }
+        }
+        if (phaseProfiler != null) {
+            phaseProfiler.start(PhaseProfiler.Phase.DEFAULTING);
+        }
+        try {
+            defaults.annotate(elt, type);
+        } finally {
+            if (phaseProfiler != null) {
+                phaseProfiler.stop(PhaseProfiler.Phase.DEFAULTING);
+            }
+        }
         dependentTypesHelper.standardizeVariable(type, elt);
     }
 
@@ -2605,10 +2816,11 @@ public abstract class GenericAnnotatedTypeFactory<
             if (this.subcheckerSharedCFG == null) {
                 this.subcheckerSharedCFG = new HashMap<>(getCacheSize());
             }
-            if (!this.subcheckerSharedCFG.containsKey(tree)) {
-                this.subcheckerSharedCFG.put(tree, cfg);
+            ControlFlowGraph previous = this.subcheckerSharedCFG.putIfAbsent(tree, cfg);
+            if (previous == null) {
+                sharedCFGBuildCount++;
             } else {
-                assert this.subcheckerSharedCFG.get(tree).equals(cfg);
+                assert previous.equals(cfg);
             }
             return true;
         }
@@ -2643,9 +2855,12 @@ public abstract class GenericAnnotatedTypeFactory<
         boolean parentIsThisChecker = parentChecker == this.checker;
         if (parentIsThisChecker) {
             // This is the ultimate parent;
-            return this.subcheckerSharedCFG == null
-                    ? null
-                    : this.subcheckerSharedCFG.getOrDefault(tree, null);
+            ControlFlowGraph result =
+                    this.subcheckerSharedCFG == null ? null : this.subcheckerSharedCFG.get(tree);
+            if (result != null) {
+                sharedCFGReuseCount++;
+            }
+            return result;
         }
 
         // This is a subchecker.
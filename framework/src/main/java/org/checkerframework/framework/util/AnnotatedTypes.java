@@ -747,9 +747,19 @@ public class AnnotatedTypes {
             }
             return typeArguments;
         } else {
-            return atypeFactory
-                    .getTypeArgumentInference()
-                    .inferTypeArgs(atypeFactory, expr, elt, preType);
+            PhaseProfiler profiler = atypeFactory.getChecker().getPhaseProfiler();
+            if (profiler != null) {
+                profiler.start(PhaseProfiler.Phase.TYPE_ARGUMENT_INFERENCE);
+            }
+            try {
+                return atypeFactory
+                        .getTypeArgumentInference()
+                        .inferTypeArgs(atypeFactory, expr, elt, preType);
+            } finally {
+                if (profiler != null) {
+                    profiler.stop(PhaseProfiler.Phase.TYPE_ARGUMENT_INFERENCE);
+                }
+            }
         }
     }
 
@@ -0,0 +1,200 @@
+package org.checkerframework.framework.util;
+
+import java.lang.annotation.Annotation;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.initialization.qual.UnderInitialization;
+import org.checkerframework.checker.interning.qual.Interned;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signature.qual.CanonicalName;
+import org.checkerframework.javacutil.TypeSystemError;
+
+/**
+ * A {@link DefaultQualifierKindHierarchy} that answers subtype, lub, and glb queries in constant
+ * time by table lookup.
+ *
+ * <p>Each qualifier kind is assigned a dense ordinal: its index in {@link #qualifierKinds}. Each
+ * qualifier kind stores its supertypes as a bit set indexed by ordinal, and the lubs and glbs are
+ * stored in flat arrays indexed by pairs of ordinals. The tables are computed once, from the
+ * hierarchy that {@link DefaultQualifierKindHierarchy} creates, so this class supports exactly the
+ * same hierarchies and gives exactly the same answers.
+ *
+ * <p>To use this class, override {@code createQualifierKindHierarchy} in {@link
+ * org.checkerframework.framework.type.ElementQualifierHierarchy} or {@link
+ * org.checkerframework.framework.type.NoElementQualifierHierarchy} to return an instance of it.
+ */
+public class BitSetQualifierKindHierarchy extends DefaultQualifierKindHierarchy {
+
+    /** The value in {@link #lubTable} and {@link #glbTable} for kinds in different hierarchies. */
+    private static final short NO_BOUND = -1;
+
+    /**
+     * The number of qualifier kinds in this hierarchy; also the length of a row of {@link
+     * #lubTable} and {@link #glbTable}.
+     */
+    private final int size;
+
+    /**
+     * The lubs of qualifier kinds. The ordinal of the lub of the kinds with ordinals {@code i} and
+     * {@code j} is {@code lubTable[i * size + j]}, or {@link #NO_BOUND} if they are in different
+     * hierarchies.
+     */
+    private final short[] lubTable;
+
+    /**
+     * The glbs of qualifier kinds. The ordinal of the glb of the kinds with ordinals {@code i} and
+     * {@code j} is {@code glbTable[i * size + j]}, or {@link #NO_BOUND} if they are in different
+     * hierarchies.
+     */
+    private final short[] glbTable;
+
+    /**
+     * Creates a {@link BitSetQualifierKindHierarchy}. Also, creates and initializes all its
+     * qualifier kinds.
+     *
+     * @param qualifierClasses all the classes of qualifiers supported by this hierarchy
+     */
+    public BitSetQualifierKindHierarchy(Collection<Class<? extends Annotation>> qualifierClasses) {
+        super(qualifierClasses);
+        this.size = qualifierKinds.size();
+        this.lubTable = new short[size * size];
+        this.glbTable = new short[size * size];
+        initializeTables();
+    }
+
+    /**
+     * Creates a {@link BitSetQualifierKindHierarchy}. Also, creates and initializes all its
+     * qualifier kinds.
+     *
+     * @param qualifierClasses all the classes of qualifiers supported by this hierarchy
+     * @param bottom the bottom qualifier of this hierarchy
+     * @see DefaultQualifierKindHierarchy#DefaultQualifierKindHierarchy(Collection, Class)
+     */
+    public BitSetQualifierKindHierarchy(
+            Collection<Class<? extends Annotation>> qualifierClasses,
+            Class<? extends Annotation> bottom) {
+        super(qualifierClasses, bottom);
+        this.size = qualifierKinds.size();
+        this.lubTable = new short[size * size];
+        this.glbTable = new short[size * size];
+        initializeTables();
+    }
+
+    @Override
+    protected Map<@Interned @CanonicalName String, DefaultQualifierKind> createQualifierKinds(
+            @UnderInitialization BitSetQualifierKindHierarchy this,
+            Collection<Class<? extends Annotation>> qualifierClasses) {
+        if (qualifierClasses.size() > Short.MAX_VALUE) {
+            throw new TypeSystemError(
+                    "BitSetQualifierKindHierarchy supports at most %d qualifiers, not %d",
+                    Short.MAX_VALUE, qualifierClasses.size());
+        }
+        return super.createQualifierKinds(qualifierClasses);
+    }
+
+    @Override
+    protected DefaultQualifierKind createQualifierKind(
+            @UnderInitialization BitSetQualifierKindHierarchy this,
+            Class<? extends Annotation> clazz) {
+        return new BitSetQualifierKind(clazz);
+    }
+
+    /**
+     * Assigns the ordinal of each qualifier kind and fills in the supertype bit sets, {@link
+     * #lubTable}, and {@link #glbTable} from the maps computed by the superclass.
+     */
+    private void initializeTables(@UnderInitialization BitSetQualifierKindHierarchy this) {
+        List<DefaultQualifierKind> kinds = qualifierKinds;
+        for (int i = 0; i < size; i++) {
+            ((BitSetQualifierKind) kinds.get(i)).ordinal = i;
+        }
+        for (int i = 0; i < size; i++) {
+            BitSetQualifierKind kind = (BitSetQualifierKind) kinds.get(i);
+            BitSet supertypes = new BitSet(size);
+            supertypes.set(i);
+            for (QualifierKind superKind : kind.getStrictSuperTypes()) {
+                supertypes.set(((BitSetQualifierKind) superKind).ordinal);
+            }
+            for (int j = 0; j < size; j++) {
+                QualifierKind other = kinds.get(j);
+                lubTable[i * size + j] = ordinal(super.leastUpperBound(kind, other));
+                glbTable[i * size + j] = ordinal(super.greatestLowerBound(kind, other));
+            }
+            kind.supertypes = supertypes;
+        }
+    }
+
+    /**
+     * Returns the ordinal of the given qualifier kind, or {@link #NO_BOUND} if it is null.
+     *
+     * @param kind a qualifier kind of this hierarchy, or null
+     * @return the ordinal of {@code kind}, or {@link #NO_BOUND} if it is null
+     */
+    private static short ordinal(@Nullable QualifierKind kind) {
+        return kind == null ? NO_BOUND : (short) ((BitSetQualifierKind) kind).ordinal;
+    }
+
+    @Override
+    public @Nullable QualifierKind leastUpperBound(QualifierKind q1, QualifierKind q2) {
+        return lookup(lubTable, q1, q2);
+    }
+
+    @Override
+    public @Nullable QualifierKind greatestLowerBound(QualifierKind q1, QualifierKind q2) {
+        return lookup(glbTable, q1, q2);
+    }
+
+    /**
+     * Returns the qualifier kind stored in {@code table} for the given pair of qualifier kinds.
+     *
+     * @param table {@link #lubTable} or {@link #glbTable}
+     * @param q1 a qualifier kind of this hierarchy
+     * @param q2 a qualifier kind of this hierarchy
+     * @return the qualifier kind stored in {@code table} for {@code q1} and {@code q2}, or null if
+     *     they are in different hierarchies
+     */
+    private @Nullable QualifierKind lookup(short[] table, QualifierKind q1, QualifierKind q2) {
+        int index = ((BitSetQualifierKind) q1).ordinal * size + ((BitSetQualifierKind) q2).ordinal;
+        int result = table[index];
+        return result == NO_BOUND ? null : qualifierKinds.get(result);
+    }
+
+    /**
+     * The implementation of {@link QualifierKind} used by {@link BitSetQualifierKindHierarchy}. It
+     * tests subtyping by looking up a bit in a bit set.
+     */
+    public @Interned static class BitSetQualifierKind extends DefaultQualifierKind {
+
+        /** The index of this in {@link DefaultQualifierKindHierarchy#qualifierKinds}. */
+        // Set while creating the QualifierKindHierarchy.
+        private int ordinal;
+
+        /**
+         * The ordinals of all the qualifier kinds that are a super qualifier kind of this,
+         * including this itself.
+         */
+        // Set while creating the QualifierKindHierarchy.
+        private @MonotonicNonNull BitSet supertypes;
+
+        /**
+         * Creates a {@link BitSetQualifierKind} for the given annotation class.
+         *
+         * @param clazz annotation class for a qualifier
+         */
+        BitSetQualifierKind(Class<? extends Annotation> clazz) {
+            super(clazz);
+        }
+
+        @Override
+        public boolean isSubtypeOf(QualifierKind superQualKind) {
+            if (supertypes == null) {
+                // The hierarchy is still being created.
+                return super.isSubtypeOf(superQualKind);
+            }
+            return supertypes.get(((BitSetQualifierKind) superQualKind).ordinal);
+        }
+    }
+}
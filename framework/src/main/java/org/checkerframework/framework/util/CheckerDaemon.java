@@ -0,0 +1,605 @@
+package org.checkerframework.framework.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A long-lived process that runs {@code javac}, with the Checker Framework, for {@link
+ * CheckerMain}. Each compilation that the daemon runs reuses the loaded and JIT-compiled classes of
+ * the Checker Framework and the stub files that earlier compilations parsed, instead of paying for
+ * them in a new JVM.
+ *
+ * <p>Start the daemon in the directory in which the compilations will run, with the JVM options
+ * that {@link CheckerMain#getRuntimeOptions} returns. On JDK 9 and later:
+ *
+ * <pre>{@code
+ * java --illegal-access=warn --add-opens jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED \
+ *     -ea -ea:com.sun.tools... -cp checker.jar \
+ *     org.checkerframework.framework.util.CheckerDaemon PORT_FILE
+ * }</pre>
+ *
+ * On JDK 8, where {@code javac.jar} is the one next to {@code checker.jar}:
+ *
+ * <pre>{@code
+ * java -Xbootclasspath/p:javac.jar -ea -ea:com.sun.tools... -cp javac.jar:checker.jar \
+ *     org.checkerframework.framework.util.CheckerDaemon PORT_FILE
+ * }</pre>
+ *
+ * Then pass {@code -daemonPortFile PORT_FILE} to {@link CheckerMain}. Delete the port file to stop
+ * the daemon. Extra JVM options, such as {@code -Xmx}, are allowed, but the daemon refuses every
+ * request if one of the options above is missing.
+ *
+ * <p>The daemon listens only on the loopback interface, and it only accepts requests that contain
+ * the random token in the port file, which only the user who started the daemon can read. It runs
+ * one compilation at a time, because the Checker Framework has static state. It refuses a request
+ * from a different working directory, because {@code javac} interprets relative paths against the
+ * working directory of the JVM; a request for JVM options that the daemon was not started with; a
+ * request for a {@code checker.jar} that is not on the classpath of the daemon, or that has been
+ * modified since the daemon started, because the daemon would check the code with stale classes;
+ * and a request that uses {@code -AresourceStats}, whose statistics are printed when the JVM
+ * exits. {@link CheckerMain} runs a refused compilation itself, as it does when no daemon is
+ * running. Restart the daemon after upgrading the Checker Framework.
+ */
+public class CheckerDaemon {
+
+    /** A frame that accepts a request. */
+    private static final byte ACCEPTED = 'A';
+
+    /** A frame that refuses a request; followed by the reason. */
+    private static final byte REFUSED = 'R';
+
+    /** A frame that contains standard output; followed by the bytes. */
+    private static final byte STDOUT = 'O';
+
+    /** A frame that contains standard error; followed by the bytes. */
+    private static final byte STDERR = 'E';
+
+    /** A frame that ends the response; followed by the exit status of {@code javac}. */
+    private static final byte EXIT = 'X';
+
+    /** The JVM option that prepends to the bootclasspath. */
+    private static final String BOOTCLASSPATH_PREPEND = "-Xbootclasspath/p:";
+
+    /** The exit status of {@code javac} when the compiler itself crashed. */
+    private static final int EXIT_ABNORMAL = 4;
+
+    /** How long the daemon waits for a request before it checks whether to stop, in ms. */
+    private static final int ACCEPT_TIMEOUT_MILLIS = 1000;
+
+    /** How long a client waits to connect to the daemon, in ms. */
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+    /** How long the daemon waits for each read of a request, in ms. */
+    private static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    /** The maximum length of the token in a request, in bytes. */
+    private static final int MAX_TOKEN_BYTES = 64;
+
+    /** The maximum length of any other string in a request or response, in bytes. */
+    private static final int MAX_STRING_BYTES = 1 << 24;
+
+    /** The maximum number of JVM options or {@code javac} arguments in a request. */
+    private static final int MAX_ARG_COUNT = 100_000;
+
+    /** The maximum number of bytes in a frame of output. */
+    private static final int MAX_FRAME_BYTES = 1 << 16;
+
+    /** The file that contains the port and token of this daemon. */
+    private final Path portFile;
+
+    /** The token that a request must contain. */
+    private final String token;
+
+    /** The working directory of this daemon. */
+    private final String workingDirectory = System.getProperty("user.dir");
+
+    /** The options of the JVM that runs this daemon, normalized by {@link #normalizeJvmOptions}. */
+    private final List<String> jvmOptions =
+            normalizeJvmOptions(ManagementFactory.getRuntimeMXBean().getInputArguments());
+
+    /**
+     * The canonical paths of the classpath of this daemon, each mapped to its modification time
+     * when the daemon started.
+     */
+    private final Map<String, Long> classpath = new HashMap<>();
+
+    /**
+     * Creates a daemon.
+     *
+     * @param portFile the file that contains the port and token of this daemon
+     * @param token the token that a request must contain
+     */
+    private CheckerDaemon(Path portFile, String token) {
+        this.portFile = portFile;
+        this.token = token;
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File file = new File(path);
+            classpath.put(canonicalPath(file), file.lastModified());
+        }
+    }
+
+    /**
+     * Runs the daemon until its port file is deleted.
+     *
+     * @param args the name of the port file
+     * @throws IOException if the daemon cannot listen for requests or write its port file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + CheckerDaemon.class.getName() + " PORT_FILE");
+            System.exit(1);
+        }
+        byte[] randomBytes = new byte[16];
+        new SecureRandom().nextBytes(randomBytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : randomBytes) {
+            token.append(String.format("%02x", b));
+        }
+        Path portFile = new File(args[0]).getAbsoluteFile().toPath();
+        CheckerDaemon daemon = new CheckerDaemon(portFile, token.toString());
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+            writePortFile(portFile, server.getLocalPort() + " " + token);
+            daemon.serve(server);
+        }
+    }
+
+    /**
+     * Writes the port file so that only the current user can read it, and so that a client never
+     * reads a partially-written file.
+     *
+     * @param portFile the port file
+     * @param contents the contents of the port file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writePortFile(Path portFile, String contents) throws IOException {
+        Path dir = portFile.getParent();
+        String prefix = portFile.getFileName().toString();
+        Path temp;
+        try {
+            temp =
+                    Files.createTempFile(
+                            dir,
+                            prefix,
+                            ".tmp",
+                            PosixFilePermissions.asFileAttribute(
+                                    EnumSet.of(
+                                            PosixFilePermission.OWNER_READ,
+                                            PosixFilePermission.OWNER_WRITE)));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the temporary file is readable only by its owner anyway.
+            temp = Files.createTempFile(dir, prefix, ".tmp");
+        }
+        Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(
+                    temp,
+                    portFile,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, portFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Serves requests, one at a time, until the port file is deleted. A client that fails to send
+     * a well-formed request in time, or that disconnects, affects only its own request.
+     *
+     * @param server the socket on which to accept requests
+     * @throws IOException if accepting a request fails
+     */
+    private void serve(ServerSocket server) throws IOException {
+        while (Files.exists(portFile)) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                // Check again whether the port file exists.
+                continue;
+            }
+            try (Socket s = socket) {
+                s.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+                handle(s);
+            } catch (IOException | RuntimeException e) {
+                // Serve the next client.
+                System.err.println("CheckerDaemon: " + e);
+            }
+        }
+    }
+
+    /**
+     * Reads a request from the given socket, runs {@code javac}, and writes the response. The
+     * token is checked before the rest of the request is read.
+     *
+     * @param socket a connection to a client
+     * @throws IOException if communicating with the client fails, or the request is malformed
+     */
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        String requestToken = readString(in, MAX_TOKEN_BYTES);
+        if (!MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                requestToken.getBytes(StandardCharsets.UTF_8))) {
+            refuse(out, "wrong token");
+            return;
+        }
+        String requestDirectory = readString(in, MAX_STRING_BYTES);
+        List<String> requestJvmOptions = readStrings(in);
+        List<String> requestClasspath = readStrings(in);
+        List<String> args = readStrings(in);
+
+        String refusal = null;
+        List<String> missingJvmOptions = new ArrayList<>(normalizeJvmOptions(requestJvmOptions));
+        missingJvmOptions.removeAll(jvmOptions);
+        if (!workingDirectory.equals(requestDirectory)) {
+            refusal = "the daemon runs in " + workingDirectory;
+        } else if (!missingJvmOptions.isEmpty()) {
+            refusal =
+                    "the daemon was not started with the JVM options "
+                            + String.join(" ", missingJvmOptions);
+        } else {
+            refusal = checkClasspath(requestClasspath);
+        }
+        if (refusal == null) {
+            for (String arg : args) {
+                if (arg.startsWith("-AresourceStats")) {
+                    refusal = "-AresourceStats is printed when the JVM exits";
+                }
+            }
+        }
+        if (refusal != null) {
+            refuse(out, refusal);
+            return;
+        }
+        out.writeByte(ACCEPTED);
+
+        PrintStream oldOut = System.out;
+        PrintStream oldErr = System.err;
+        PrintStream stdout = new PrintStream(new FrameOutputStream(out, STDOUT), true, "UTF-8");
+        PrintStream stderr = new PrintStream(new FrameOutputStream(out, STDERR), true, "UTF-8");
+        int exitStatus;
+        System.setOut(stdout);
+        System.setErr(stderr);
+        try {
+            JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+            exitStatus = javac.run(null, stdout, stderr, args.toArray(new String[0]));
+        } catch (Throwable t) {
+            t.printStackTrace(new PrintWriter(stderr, true));
+            exitStatus = EXIT_ABNORMAL;
+        } finally {
+            System.setOut(oldOut);
+            System.setErr(oldErr);
+        }
+        stdout.flush();
+        stderr.flush();
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitStatus);
+            out.flush();
+        }
+    }
+
+    /**
+     * Checks that the given files are on the classpath of this daemon and have not been modified
+     * since it started, so that the daemon runs the same code that the client would.
+     *
+     * @param requestClasspath the files, such as {@code checker.jar}, that the client would load
+     *     the Checker Framework from
+     * @return why the request is refused, or null if the files are on the classpath and unchanged
+     */
+    private @Nullable String checkClasspath(List<String> requestClasspath) {
+        for (String path : requestClasspath) {
+            File file = new File(path);
+            Long lastModified = classpath.get(canonicalPath(file));
+            if (lastModified == null) {
+                return "the daemon was not started with " + path + " on its classpath";
+            }
+            if (lastModified != file.lastModified()) {
+                return path + " has changed since the daemon started; restart the daemon";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the canonical path of a file, or its absolute path if the canonical path cannot be
+     * determined.
+     *
+     * @param file a file
+     * @return the canonical path of {@code file}
+     */
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Writes a response that refuses a request.
+     *
+     * @param out the response
+     * @param reason why the request is refused
+     * @throws IOException if writing fails
+     */
+    private static void refuse(DataOutputStream out, String reason) throws IOException {
+        out.writeByte(REFUSED);
+        writeString(out, reason);
+        out.flush();
+    }
+
+    /**
+     * Normalizes JVM options so that the options that a client requests can be compared with the
+     * options that {@link RuntimeMXBean#getInputArguments} reports: an option such as {@code
+     * --add-opens} and its value, which the JVM reports as one argument joined by "=", are joined,
+     * and the paths in {@code -Xbootclasspath/p:} are made canonical.
+     *
+     * @param options JVM options
+     * @return the normalized options
+     */
+    private static List<String> normalizeJvmOptions(List<String> options) {
+        List<String> result = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (option.startsWith("--")
+                    && !option.contains("=")
+                    && i + 1 < options.size()
+                    && !options.get(i + 1).startsWith("-")) {
+                option = option + "=" + options.get(++i);
+            } else if (option.startsWith(BOOTCLASSPATH_PREPEND)) {
+                String[] paths =
+                        option.substring(BOOTCLASSPATH_PREPEND.length()).split(File.pathSeparator);
+                List<String> canonicalPaths = new ArrayList<>(paths.length);
+                for (String path : paths) {
+                    canonicalPaths.add(canonicalPath(new File(path)));
+                }
+                option = BOOTCLASSPATH_PREPEND + String.join(File.pathSeparator, canonicalPaths);
+            }
+            result.add(option);
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code javac} in the daemon whose port file is given.
+     *
+     * @param portFile the port file of the daemon
+     * @param jvmOptions the options, such as those of {@link CheckerMain#getRuntimeOptions}, that
+     *     the JVM that runs {@code javac} must have been started with
+     * @param classpath the files, such as {@code checker.jar}, that the JVM that runs {@code javac}
+     *     must load the Checker Framework from
+     * @param javacArgs the arguments to {@code javac}
+     * @param stdout where to write the standard output of {@code javac}
+     * @param stderr where to write the standard error of {@code javac}
+     * @return the exit status of {@code javac}, or null if the daemon is not running or refused
+     *     the request, in which case the client should run {@code javac} itself
+     */
+    public static @Nullable Integer compile(
+            File portFile,
+            List<String> jvmOptions,
+            List<String> classpath,
+            List<String> javacArgs,
+            OutputStream stdout,
+            OutputStream stderr) {
+        String[] portAndToken;
+        try {
+            portAndToken =
+                    new String(Files.readAllBytes(portFile.toPath()), StandardCharsets.UTF_8)
+                            .trim()
+                            .split(" ");
+        } catch (IOException e) {
+            return null;
+        }
+        if (portAndToken.length != 2) {
+            return null;
+        }
+        boolean accepted = false;
+        try (Socket socket = new Socket()) {
+            socket.connect(
+                    new InetSocketAddress(
+                            InetAddress.getLoopbackAddress(), Integer.parseInt(portAndToken[0])),
+                    CONNECT_TIMEOUT_MILLIS);
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeString(out, portAndToken[1]);
+            writeString(out, System.getProperty("user.dir"));
+            writeStrings(out, jvmOptions);
+            writeStrings(out, classpath);
+            writeStrings(out, javacArgs);
+            out.flush();
+
+            DataInputStream in =
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (true) {
+                byte kind = in.readByte();
+                switch (kind) {
+                    case ACCEPTED:
+                        accepted = true;
+                        break;
+                    case REFUSED:
+                        new PrintStream(stderr, true)
+                                .println(
+                                        "Not using the Checker Framework daemon: "
+                                                + readString(in, MAX_STRING_BYTES));
+                        return null;
+                    case STDOUT:
+                    case STDERR:
+                        byte[] bytes = new byte[readLength(in, MAX_FRAME_BYTES)];
+                        in.readFully(bytes);
+                        (kind == STDOUT ? stdout : stderr).write(bytes);
+                        break;
+                    case EXIT:
+                        int exitStatus = in.readInt();
+                        stdout.flush();
+                        stderr.flush();
+                        return exitStatus;
+                    default:
+                        throw new IOException("unexpected response from the daemon: " + kind);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            if (accepted) {
+                new PrintStream(stderr, true)
+                        .println("Lost the connection to the Checker Framework daemon: " + e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads a length, and checks that it is between 0 and the given maximum.
+     *
+     * @param in the stream to read from
+     * @param max the maximum length
+     * @return the length
+     * @throws IOException if reading fails or the length is out of range
+     */
+    private static int readLength(DataInputStream in, int max) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > max) {
+            throw new IOException("invalid length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}. Unlike {@link DataInputStream#readUTF}, the
+     * string may be longer than 65535 bytes, as a classpath may be.
+     *
+     * @param in the stream to read from
+     * @param maxBytes the maximum length of the string, in bytes
+     * @return the string
+     * @throws IOException if reading fails or the string is too long
+     */
+    private static String readString(DataInputStream in, int maxBytes) throws IOException {
+        byte[] bytes = new byte[readLength(in, maxBytes)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a list of strings written by {@link #writeStrings}.
+     *
+     * @param in the stream to read from
+     * @return the strings
+     * @throws IOException if reading fails or the list or one of its strings is too long
+     */
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readLength(in, MAX_ARG_COUNT);
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(in, MAX_STRING_BYTES));
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a string so that {@link #readString} can read it.
+     *
+     * @param out the stream to write to
+     * @param s the string
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes a list of strings so that {@link #readStrings} can read it.
+     *
+     * @param out the stream to write to
+     * @param strings the strings
+     * @throws IOException if writing fails
+     */
+    private static void writeStrings(DataOutputStream out, List<String> strings)
+            throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            writeString(out, s);
+        }
+    }
+
+    /** An output stream that writes each chunk of output as a frame of the response. */
+    private static class FrameOutputStream extends OutputStream {
+
+        /** The response; also the lock that keeps frames from interleaving. */
+        private final DataOutputStream out;
+
+        /** The kind of the frames: {@link #STDOUT} or {@link #STDERR}. */
+        private final byte kind;
+
+        /**
+         * Creates a FrameOutputStream.
+         *
+         * @param out the response
+         * @param kind the kind of the frames
+         */
+        FrameOutputStream(DataOutputStream out, byte kind) {
+            this.out = out;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (out) {
+                while (len > 0) {
+                    int frameLength = Math.min(len, MAX_FRAME_BYTES);
+                    out.writeByte(kind);
+                    out.writeInt(frameLength);
+                    out.write(b, off, frameLength);
+                    off += frameLength;
+                    len -= frameLength;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -93,6 +93,9 @@ public class CheckerMain {
     /** Command-line argument files (specified with @ on the command line). */
     private final List<File> argListFiles;
 
+    /** The port file of a {@link CheckerDaemon} that should run the compiler, or null. */
+    private final File daemonPortFile;
+
     /**
      * Option name for specifying an alternative checker-qual.jar location. The accompanying value
      * MUST be the path to the jar file (NOT the path to its encompassing directory)
@@ -117,6 +120,13 @@ public class CheckerMain {
      */
     public static final String JDK_PATH_OPT = "-jdkJar";
 
+    /**
+     * Option name for running the compiler in a {@link CheckerDaemon}. The accompanying value MUST
+     * be the path to the port file of the daemon. If the daemon is not running or cannot run the
+     * compilation, the compiler is run in a new process as usual.
+     */
+    public static final String DAEMON_PORT_FILE_OPT = "-daemonPortFile";
+
     /**
      * Construct all the relevant file locations and Java version given the path to this jar and a
      * set of directories in which to search for jars.
@@ -139,6 +149,8 @@ public class CheckerMain {
 
         this.javacJar = extractFileArg(JAVAC_PATH_OPT, new File(searchPath, "javac.jar"), args);
 
+        this.daemonPortFile = extractFileArg(DAEMON_PORT_FILE_OPT, null, args);
+
         this.compilationBootclasspath = createCompilationBootclasspath(args);
         this.runtimeClasspath = createRuntimeClasspath(args);
         this.jvmOpts = extractJvmOpts(args);
@@ -419,33 +431,70 @@ public class CheckerMain {
         final String java = "java";
         args.add(java);
 
+        args.addAll(getRuntimeOptions());
+        args.add("-classpath");
+        args.add(String.join(File.pathSeparator, runtimeClasspath));
+
+        args.addAll(jvmOpts);
+
+        addMainToArgs(args);
+
+        addCompilerArguments(args, true);
+        return args;
+    }
+
+    /**
+     * Returns the options, other than the classpath and the {@code -J} options, that {@link
+     * #getExecArguments} passes to the JVM that runs javac. A {@link CheckerDaemon} runs a
+     * compilation only if it was started with these options.
+     *
+     * @return the options of the JVM that runs javac
+     */
+    public List<String> getRuntimeOptions() {
+        List<String> options = new ArrayList<>(5);
         if (SystemUtil.getJreVersion() == 8) {
-            args.add("-Xbootclasspath/p:" + String.join(File.pathSeparator, runtimeClasspath));
+            options.add("-Xbootclasspath/p:" + String.join(File.pathSeparator, runtimeClasspath));
         } else {
-            args.addAll(
+            options.addAll(
                     Arrays.asList(
                             "--illegal-access=warn",
                             "--add-opens",
                             "jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED"));
         }
-
-        args.add("-classpath");
-        args.add(String.join(File.pathSeparator, runtimeClasspath));
-        args.add("-ea");
+        options.add("-ea");
         // com.sun.tools needs to be enabled separately
-        args.add("-ea:com.sun.tools...");
-
-        args.addAll(jvmOpts);
+        options.add("-ea:com.sun.tools...");
+        return options;
+    }
 
-        addMainToArgs(args);
+    /**
+     * Returns the arguments to javac itself: the arguments that {@link #getExecArguments} passes
+     * to the main class of javac, without quoting.
+     *
+     * @return the arguments to javac
+     */
+    public List<String> getCompilerArguments() {
+        List<String> args = new ArrayList<>(cpOpts.size() + toolOpts.size() + 8);
+        addCompilerArguments(args, false);
+        return args;
+    }
 
+    /**
+     * Adds the arguments to javac to the given list.
+     *
+     * @param args the list to which to add the arguments
+     * @param quotePaths whether to quote the classpath and processorpath if they contain spaces
+     */
+    private void addCompilerArguments(List<String> args, boolean quotePaths) {
         if (!argsListHasClassPath(argListFiles)) {
+            String classpath = concatenatePaths(cpOpts);
             args.add("-classpath");
-            args.add(quote(concatenatePaths(cpOpts)));
+            args.add(quotePaths ? quote(classpath) : classpath);
         }
         if (!argsListHasProcessorPath(argListFiles)) {
+            String processorpath = concatenatePaths(ppOpts);
             args.add("-processorpath");
-            args.add(quote(concatenatePaths(ppOpts)));
+            args.add(quotePaths ? quote(processorpath) : processorpath);
         }
 
         if (SystemUtil.getJreVersion() == 8) {
@@ -467,7 +516,6 @@ public class CheckerMain {
         }
 
         args.addAll(toolOpts);
-        return args;
     }
 
     /** Given a list of paths, concatenate them to form a single path. Also expand wildcards. */
@@ -512,7 +560,13 @@ public class CheckerMain {
         return result;
     }
 
-    /** Invoke the compiler with all relevant jars on its classpath and/or bootclasspath. */
+    /**
+     * Invoke the compiler with all relevant jars on its classpath and/or bootclasspath. If {@link
+     * #DAEMON_PORT_FILE_OPT} was given and no JVM options were, the compiler runs in the {@link
+     * CheckerDaemon} instead, unless the daemon is not running or cannot run the compilation.
+     *
+     * @return the exit status of the compiler
+     */
     public int invokeCompiler() {
         List<String> args = getExecArguments();
 
@@ -527,6 +581,22 @@ public class CheckerMain {
             }
         }
 
+        if (daemonPortFile != null && jvmOpts.isEmpty()) {
+            List<String> compilerArgs = getCompilerArguments();
+            compilerArgs.removeIf(arg -> arg.startsWith("-AoutputArgsToFile="));
+            Integer exitStatus =
+                    CheckerDaemon.compile(
+                            daemonPortFile,
+                            getRuntimeOptions(),
+                            Collections.singletonList(checkerJar.getAbsolutePath()),
+                            compilerArgs,
+                            System.out,
+                            System.err);
+            if (exitStatus != null) {
+                return exitStatus;
+            }
+        }
+
         // Actually invoke the compiler
         return ExecUtil.execute(args.toArray(new String[args.size()]), System.out, System.err);
     }
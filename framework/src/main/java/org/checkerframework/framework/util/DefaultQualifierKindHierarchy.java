@@ -38,6 +38,7 @@ import org.plumelib.util.StringsPlume;
  *
  * <ul>
  *   <li>{@link #createQualifierKinds(Collection)}
+ *   <li>{@link #createQualifierKind(Class)}
  *   <li>{@link #createDirectSuperMap()}
  *   <li>{@link #initializePolymorphicQualifiers()}
  *   <li>{@link #initializeQualifierKindFields(Map)}
@@ -239,7 +240,7 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
                 new TreeMap<>();
         for (Class<? extends Annotation> clazz : qualifierClasses) {
             @SuppressWarnings("interning") // uniqueness is tested immediately below
-            @Interned DefaultQualifierKind qualifierKind = new DefaultQualifierKind(clazz);
+            @Interned DefaultQualifierKind qualifierKind = createQualifierKind(clazz);
             if (nameToQualifierKind.containsKey(qualifierKind.getName())) {
                 throw new TypeSystemError("Duplicate QualifierKind " + qualifierKind.getName());
             }
@@ -248,6 +249,19 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
         return Collections.unmodifiableMap(nameToQualifierKind);
     }
 
+    /**
+     * Creates the {@link QualifierKind} for the given qualifier class. Subclasses may override this
+     * method to return a subclass of {@link DefaultQualifierKind}.
+     *
+     * @param clazz the class of an annotation that is a type qualifier
+     * @return a new, uninitialized qualifier kind for {@code clazz}
+     */
+    protected DefaultQualifierKind createQualifierKind(
+            @UnderInitialization DefaultQualifierKindHierarchy this,
+            Class<? extends Annotation> clazz) {
+        return new DefaultQualifierKind(clazz);
+    }
+
     /**
      * Creates a mapping from a {@link QualifierKind} to a set of its direct super qualifier kinds.
      * The direct super qualifier kinds do not contain the qualifier itself. This mapping is used to
@@ -79,6 +79,7 @@ import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.LRUCache;
 import org.checkerframework.javacutil.Resolver;
 import org.checkerframework.javacutil.TreePathUtil;
 import org.checkerframework.javacutil.TreeUtils;
@@ -115,6 +116,22 @@ public class JavaExpressionParseUtil {
     /** The length of {@link #PARAMETER_REPLACEMENT}. */
     private static final int PARAMETER_REPLACEMENT_LENGTH = PARAMETER_REPLACEMENT.length();
 
+    /** The maximum number of entries in {@link #parsedExpressions}. */
+    private static final int PARSED_EXPRESSIONS_CACHE_SIZE = 1000;
+
+    /**
+     * Maps an expression string, as written in an annotation, to its JavaParser AST. The same
+     * strings are parsed over and over again, for example every time a method whose contract
+     * mentions them is called, but parsing does not depend on where the string is used. Only the
+     * conversion of the AST to a {@link JavaExpression} does, so only parsing is cached. The
+     * conversion does not modify the AST, so the AST can be shared.
+     *
+     * <p>The cache is shared by all compilations that run in the same JVM, which might run
+     * concurrently, and even {@link LRUCache#get} modifies it, so every access synchronizes on it.
+     */
+    private static final LRUCache<String, Expression> parsedExpressions =
+            new LRUCache<>(PARSED_EXPRESSIONS_CACHE_SIZE);
+
     /**
      * Parse a string and viewpoint-adapt it to the given {@code context}. Return its representation
      * as a {@link JavaExpression}, or throw a {@link JavaExpressionParseException}.
@@ -157,10 +174,18 @@ public class JavaExpressionParseUtil {
         // current CompilationUnit.
         TreePath pathToCompilationUnit = context.checker.getPathToCompilationUnit();
         Expression expr;
-        try {
-            expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
-        } catch (ParseProblemException e) {
-            throw constructJavaExpressionParseError(expression, "is an invalid expression");
+        synchronized (parsedExpressions) {
+            expr = parsedExpressions.get(expression);
+        }
+        if (expr == null) {
+            try {
+                expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
+            } catch (ParseProblemException e) {
+                throw constructJavaExpressionParseError(expression, "is an invalid expression");
+            }
+            synchronized (parsedExpressions) {
+                parsedExpressions.put(expression, expr);
+            }
         }
 
         JavaExpression result;
@@ -191,6 +216,18 @@ public class JavaExpressionParseUtil {
         return result;
     }
 
+    /**
+     * Returns a one-line summary of the size and the statistics of the cache of parsed expressions,
+     * which is shared by all checkers.
+     *
+     * @return a summary of the size and the statistics of the cache of parsed expressions
+     */
+    public static String getParseCacheStatistics() {
+        synchronized (parsedExpressions) {
+            return parsedExpressions.getStatistics();
+        }
+    }
+
     /**
      * Replaces every occurrence of "#NUMBER" with "_param_NUMBER" where NUMBER is the 1-based index
      * of a formal parameter.
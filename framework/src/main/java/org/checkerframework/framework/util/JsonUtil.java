@@ -0,0 +1,51 @@
+package org.checkerframework.framework.util;
+
+import java.util.Locale;
+
+/** Utility methods for writing JSON output, such as that of {@link PhaseProfiler}. */
+public final class JsonUtil {
+
+    /** Do not instantiate. */
+    private JsonUtil() {
+        throw new AssertionError("Class JsonUtil cannot be instantiated.");
+    }
+
+    /**
+     * Returns the given string as a JSON string literal.
+     *
+     * @param s a string
+     * @return a JSON string literal whose value is {@code s}
+     */
+    public static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,318 @@
+package org.checkerframework.framework.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.javacutil.BugInCF;
+
+/**
+ * Measures how much time a checker spends in each phase of type-checking, per top-level class.
+ * Enabled by the {@code -AprofilePhases} command-line option.
+ *
+ * <p>Phases nest: for example, type-checking a method performs dataflow analysis, which annotates
+ * trees. The time of a phase is exclusive: it does not include the time of the phases nested in
+ * it. Therefore, the times of all phases of a class add up to the time the checker spent on that
+ * class.
+ *
+ * <p>Every call to {@link #start} should be matched by a call to {@link #stop} in a {@code
+ * finally} block, so that the time of a phase that throws an exception is still charged to it:
+ *
+ * <pre>{@code
+ * PhaseProfiler profiler = checker.getPhaseProfiler();
+ * if (profiler != null) {
+ *     profiler.start(PhaseProfiler.Phase.DATAFLOW);
+ * }
+ * try {
+ *     ...
+ * } finally {
+ *     if (profiler != null) {
+ *         profiler.stop(PhaseProfiler.Phase.DATAFLOW);
+ *     }
+ * }
+ * }</pre>
+ *
+ * If a phase is nevertheless left unstopped, it is stopped together with the phase that encloses
+ * it.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class PhaseProfiler {
+
+    /** A phase of type-checking. */
+    public enum Phase {
+        /** Parsing stub files, ajava files, and the annotated JDK. */
+        STUB_PARSING("stubParsing"),
+        /** Building control-flow graphs. */
+        CFG_CONSTRUCTION("cfgConstruction"),
+        /** Performing dataflow analysis. */
+        DATAFLOW("dataflow"),
+        /** Running the tree annotator and the type annotator. */
+        TREE_ANNOTATION("treeAnnotation"),
+        /** Applying default qualifiers. */
+        DEFAULTING("defaulting"),
+        /** Inferring the type arguments of method and constructor invocations. */
+        TYPE_ARGUMENT_INFERENCE("typeArgumentInference"),
+        /** The checks of the visitor; that is, all time not spent in another phase. */
+        TYPE_CHECKING("typeChecking");
+
+        /** The name of this phase in the output. */
+        public final String jsonName;
+
+        /**
+         * Creates a phase.
+         *
+         * @param jsonName the name of this phase in the output
+         */
+        Phase(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    /** The name of the class to which time spent before any class is type-checked is charged. */
+    public static final String NO_CLASS = "<initialization>";
+
+    /** The fully-qualified name of the checker whose time this profiler measures. */
+    private final String checkerName;
+
+    /** Maps the name of each top-level class to the time the checker spent on it. */
+    private final Map<String, ClassProfile> classProfiles = new LinkedHashMap<>();
+
+    /** The profile of the class that is currently being type-checked. */
+    private ClassProfile currentProfile;
+
+    /** The phases that have been started but not stopped; the innermost phase is first. */
+    private final ArrayDeque<Phase> activePhases = new ArrayDeque<>();
+
+    /**
+     * The value of {@link System#nanoTime} when the innermost active phase was last started or
+     * resumed.
+     */
+    private long lastTimestamp;
+
+    /**
+     * Creates a profiler.
+     *
+     * @param checkerName the fully-qualified name of the checker whose time this profiler measures
+     */
+    public PhaseProfiler(String checkerName) {
+        this.checkerName = checkerName;
+        this.currentProfile = getClassProfile(NO_CLASS);
+    }
+
+    /**
+     * Returns the name of the checker whose time this profiler measures.
+     *
+     * @return the fully-qualified name of the checker whose time this profiler measures
+     */
+    public String getCheckerName() {
+        return checkerName;
+    }
+
+    /**
+     * Charges all subsequent time to the given top-level class.
+     *
+     * @param className the fully-qualified name of the top-level class that is being type-checked
+     */
+    public void setCurrentClass(String className) {
+        if (!activePhases.isEmpty()) {
+            chargeActivePhase(System.nanoTime());
+        }
+        currentProfile = getClassProfile(className);
+    }
+
+    /**
+     * Returns the profile of the given class, creating it if necessary.
+     *
+     * @param className the fully-qualified name of a top-level class
+     * @return the profile of {@code className}
+     */
+    private ClassProfile getClassProfile(String className) {
+        return classProfiles.computeIfAbsent(className, ClassProfile::new);
+    }
+
+    /**
+     * Starts the given phase. Pauses the phase that is currently active, if any, until the given
+     * phase is stopped.
+     *
+     * @param phase the phase to start
+     */
+    public void start(Phase phase) {
+        long now = System.nanoTime();
+        if (!activePhases.isEmpty()) {
+            chargeActivePhase(now);
+        }
+        activePhases.push(phase);
+        currentProfile.counts[phase.ordinal()]++;
+        lastTimestamp = now;
+    }
+
+    /**
+     * Stops the given phase, which must be active. Also stops the phases nested in it that were
+     * not stopped, because an exception was thrown. Resumes the phase that was active when the
+     * given phase was started, if any.
+     *
+     * @param phase the phase to stop
+     */
+    public void stop(Phase phase) {
+        long now = System.nanoTime();
+        if (!activePhases.contains(phase)) {
+            throw new BugInCF("PhaseProfiler.stop(%s): the phase is not active", phase);
+        }
+        chargeActivePhase(now);
+        while (activePhases.pop() != phase) {
+            // Discard a nested phase that was not stopped.
+        }
+    }
+
+    /**
+     * Charges the time since {@link #lastTimestamp} to the innermost active phase of the current
+     * class, and sets {@link #lastTimestamp} to {@code now}.
+     *
+     * @param now the current value of {@link System#nanoTime}
+     */
+    private void chargeActivePhase(long now) {
+        currentProfile.nanos[activePhases.element().ordinal()] += now - lastTimestamp;
+        lastTimestamp = now;
+    }
+
+    /**
+     * Writes the profiles of the given checkers to {@code out} as a JSON object of the form:
+     *
+     * <pre>{@code
+     * {"checkers": [
+     *   {"checker": "org.checkerframework.checker.nullness.NullnessChecker",
+     *    "totalNanos": 1234,
+     *    "classes": [
+     *      {"class": "com.example.Foo",
+     *       "totalNanos": 1000,
+     *       "phases": {"dataflow": {"nanos": 600, "count": 12}, ...}},
+     *      ...]},
+     *   ...]}
+     * }</pre>
+     *
+     * The classes of each checker are sorted by decreasing total time. A phase that was never
+     * started for a class is omitted.
+     *
+     * @param profilers the profilers of the checkers, in the order in which the checkers ran
+     * @param out where to write the profiles
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(List<PhaseProfiler> profilers, Writer out) throws IOException {
+        PrintWriter pw = new PrintWriter(out);
+        pw.print("{\"checkers\": [");
+        for (int i = 0; i < profilers.size(); i++) {
+            pw.print(i == 0 ? "\n" : ",\n");
+            profilers.get(i).writeJson(pw);
+        }
+        pw.println("]}");
+        pw.flush();
+        if (pw.checkError()) {
+            throw new IOException("error while writing phase profile");
+        }
+    }
+
+    /**
+     * Writes the profile of this checker as a JSON object.
+     *
+     * @param pw where to write the profile
+     * @see #writeJson(List, Writer)
+     */
+    private void writeJson(PrintWriter pw) {
+        List<ClassProfile> profiles = new ArrayList<>(classProfiles.values());
+        profiles.removeIf(ClassProfile::isEmpty);
+        profiles.sort(Comparator.comparingLong(ClassProfile::totalNanos).reversed());
+        long total = 0;
+        for (ClassProfile profile : profiles) {
+            total += profile.totalNanos();
+        }
+
+        pw.print("  {\"checker\": " + JsonUtil.jsonString(checkerName));
+        pw.print(", \"totalNanos\": " + total);
+        pw.print(", \"classes\": [");
+        for (int i = 0; i < profiles.size(); i++) {
+            pw.print(i == 0 ? "\n" : ",\n");
+            profiles.get(i).writeJson(pw);
+        }
+        pw.print("]}");
+    }
+
+    /** The time a checker spent on one top-level class, per phase. */
+    private static class ClassProfile {
+
+        /** The fully-qualified name of the class. */
+        final String className;
+
+        /** The exclusive time spent in each phase, in nanoseconds, indexed by ordinal. */
+        final long[] nanos = new long[Phase.values().length];
+
+        /** The number of times each phase was started, indexed by ordinal. */
+        final long[] counts = new long[Phase.values().length];
+
+        /**
+         * Creates an empty profile.
+         *
+         * @param className the fully-qualified name of the class
+         */
+        ClassProfile(String className) {
+            this.className = className;
+        }
+
+        /**
+         * Returns the total time spent on the class, in nanoseconds.
+         *
+         * @return the total time spent on the class, in nanoseconds
+         */
+        long totalNanos() {
+            long total = 0;
+            for (long n : nanos) {
+                total += n;
+            }
+            return total;
+        }
+
+        /**
+         * Returns true if no phase was ever started for the class.
+         *
+         * @return true if no phase was ever started for the class
+         */
+        boolean isEmpty() {
+            for (long count : counts) {
+                if (count != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Writes this profile as a JSON object.
+         *
+         * @param pw where to write the profile
+         */
+        void writeJson(PrintWriter pw) {
+            pw.print("    {\"class\": " + JsonUtil.jsonString(className));
+            pw.print(", \"totalNanos\": " + totalNanos());
+            pw.print(", \"phases\": {");
+            boolean first = true;
+            for (Phase phase : Phase.values()) {
+                int i = phase.ordinal();
+                if (counts[i] == 0) {
+                    continue;
+                }
+                if (!first) {
+                    pw.print(", ");
+                }
+                first = false;
+                pw.print(JsonUtil.jsonString(phase.jsonName));
+                pw.print(": {\"nanos\": " + nanos[i] + ", \"count\": " + counts[i] + "}");
+            }
+            pw.print("}}");
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.checkerframework.framework.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGStatement;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * Records the most expensive dataflow analyses of one checker: the methods, lambdas, and field
+ * initializers whose control-flow graph construction and dataflow analysis took the longest.
+ * Enabled by the {@code -AreportSlowestMethods} command-line option.
+ *
+ * <p>For each analysis, the report records its wall time, the number of times a basic block was
+ * analyzed, the number of times a store was widened, and the size of the largest store. A method
+ * whose blocks are analyzed many times more than it has blocks, or that needs widening, usually
+ * has deeply nested loops or a value that does not converge.
+ */
+public class SlowestAnalysesReport {
+
+    /** The number of analyses to report if the command-line option does not give a number. */
+    public static final int DEFAULT_LIMIT = 10;
+
+    /** The simple name of the checker whose analyses this report records. */
+    private final String checkerName;
+
+    /** The maximum number of analyses that this report records. */
+    private final int limit;
+
+    /** The slowest analyses recorded so far; the head is the fastest of them. */
+    private final PriorityQueue<Entry> entries;
+
+    /**
+     * Creates an empty report.
+     *
+     * @param checkerName the simple name of the checker whose analyses this report records
+     * @param limit the maximum number of analyses to record
+     */
+    public SlowestAnalysesReport(String checkerName, int limit) {
+        if (limit <= 0) {
+            throw new BugInCF("SlowestAnalysesReport: limit must be positive: " + limit);
+        }
+        this.checkerName = checkerName;
+        this.limit = limit;
+        this.entries = new PriorityQueue<>(limit + 1, Comparator.comparingLong(e -> e.nanos));
+    }
+
+    /**
+     * Returns the number of analyses to report, given the value of the {@code
+     * -AreportSlowestMethods} command-line option.
+     *
+     * @param option the value of the command-line option, or null if it has no value
+     * @return the number of analyses to report
+     */
+    public static int parseLimit(@Nullable String option) {
+        if (option == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int result = Integer.parseInt(option);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below.
+        }
+        throw new UserError("reportSlowestMethods was not a positive integer: " + option);
+    }
+
+    /**
+     * Returns true if an analysis that took the given time would be among the slowest analyses
+     * recorded so far. Clients use this to avoid computing the other statistics of most analyses.
+     *
+     * @param nanos the wall time of an analysis, in nanoseconds
+     * @return true if {@link #add} would record an analysis that took {@code nanos}
+     */
+    public boolean isAmongSlowest(long nanos) {
+        return entries.size() < limit || nanos > entries.element().nanos;
+    }
+
+    /**
+     * Records an analysis, if it is among the slowest analyses recorded so far.
+     *
+     * @param ast the code that was analyzed
+     * @param root the compilation unit that contains {@code ast}
+     * @param positions the source positions of {@code root}
+     * @param nanos the wall time of control-flow graph construction and dataflow analysis, in
+     *     nanoseconds
+     * @param blockAnalysisCount the number of times a basic block was analyzed
+     * @param wideningCount the number of times a store was widened
+     * @param largestStoreSize the size of the largest store
+     */
+    public void add(
+            UnderlyingAST ast,
+            CompilationUnitTree root,
+            SourcePositions positions,
+            long nanos,
+            int blockAnalysisCount,
+            int wideningCount,
+            int largestStoreSize) {
+        if (!isAmongSlowest(nanos)) {
+            return;
+        }
+        entries.add(
+                new Entry(
+                        checkerName,
+                        describe(ast),
+                        location(ast.getCode(), root, positions),
+                        nanos,
+                        blockAnalysisCount,
+                        wideningCount,
+                        largestStoreSize));
+        if (entries.size() > limit) {
+            entries.remove();
+        }
+    }
+
+    /**
+     * Returns a description of the analyzed code, such as "method Foo.bar".
+     *
+     * @param ast the analyzed code
+     * @return a description of {@code ast}
+     */
+    private static String describe(UnderlyingAST ast) {
+        switch (ast.getKind()) {
+            case METHOD:
+                CFGMethod method = (CFGMethod) ast;
+                return "method " + method.getSimpleClassName() + "." + method.getMethodName();
+            case LAMBDA:
+                CFGLambda lambda = (CFGLambda) ast;
+                return "lambda in " + lambda.getSimpleClassName() + "." + lambda.getMethodName();
+            case ARBITRARY_CODE:
+                CFGStatement statement = (CFGStatement) ast;
+                ClassTree classTree = statement.getClassTree();
+                String what =
+                        statement.getCode().getKind() == Tree.Kind.BLOCK
+                                ? "initializer"
+                                : "field initializer";
+                return what + " in " + classTree.getSimpleName();
+            default:
+                throw new BugInCF("SlowestAnalysesReport: unexpected kind " + ast.getKind());
+        }
+    }
+
+    /**
+     * Returns the file name and line number of the given tree.
+     *
+     * @param tree a tree in {@code root}
+     * @param root a compilation unit
+     * @param positions the source positions of {@code root}
+     * @return the file name and line number of {@code tree}, separated by a colon
+     */
+    private static String location(Tree tree, CompilationUnitTree root, SourcePositions positions) {
+        String file = root.getSourceFile().getName();
+        long pos = positions.getStartPosition(root, tree);
+        LineMap lineMap = root.getLineMap();
+        if (pos < 0 || lineMap == null) {
+            return file;
+        }
+        return file + ":" + lineMap.getLineNumber(pos);
+    }
+
+    /**
+     * Returns the recorded analyses, slowest first.
+     *
+     * @return the recorded analyses, slowest first
+     */
+    public List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<>(entries);
+        result.sort(Comparator.comparingLong((Entry e) -> e.nanos).reversed());
+        return result;
+    }
+
+    /**
+     * Returns a message that lists the slowest analyses recorded by all the given reports, slowest
+     * first. The message lists at most as many analyses as the largest limit of the reports.
+     *
+     * @param reports the reports of one or more checkers
+     * @return a multi-line message about the slowest analyses, or null if there are none
+     */
+    public static @Nullable String format(Collection<SlowestAnalysesReport> reports) {
+        List<Entry> all = new ArrayList<>();
+        int limit = 0;
+        for (SlowestAnalysesReport report : reports) {
+            all.addAll(report.entries);
+            limit = Math.max(limit, report.limit);
+        }
+        if (all.isEmpty()) {
+            return null;
+        }
+        all.sort(Comparator.comparingLong((Entry e) -> e.nanos).reversed());
+        if (all.size() > limit) {
+            all = all.subList(0, limit);
+        }
+        StringJoiner sj = new StringJoiner(System.lineSeparator());
+        sj.add("The " + all.size() + " slowest dataflow analyses:");
+        for (Entry e : all) {
+            sj.add("  " + e);
+        }
+        return sj.toString();
+    }
+
+    /** The statistics of one analysis. */
+    public static class Entry {
+        /** The simple name of the checker that performed the analysis. */
+        public final String checkerName;
+
+        /** A description of the analyzed code. */
+        public final String description;
+
+        /** The file name and line number of the analyzed code. */
+        public final String location;
+
+        /**
+         * The wall time of control-flow graph construction and dataflow analysis, in nanoseconds.
+         */
+        public final long nanos;
+
+        /** The number of times a basic block was analyzed. */
+        public final int blockAnalysisCount;
+
+        /** The number of times a store was widened. */
+        public final int wideningCount;
+
+        /** The size of the largest store. */
+        public final int largestStoreSize;
+
+        /**
+         * Creates an entry.
+         *
+         * @param checkerName the simple name of the checker that performed the analysis
+         * @param description a description of the analyzed code
+         * @param location the file name and line number of the analyzed code
+         * @param nanos the wall time of the analysis, in nanoseconds
+         * @param blockAnalysisCount the number of times a basic block was analyzed
+         * @param wideningCount the number of times a store was widened
+         * @param largestStoreSize the size of the largest store
+         */
+        public Entry(
+                String checkerName,
+                String description,
+                String location,
+                long nanos,
+                int blockAnalysisCount,
+                int wideningCount,
+                int largestStoreSize) {
+            this.checkerName = checkerName;
+            this.description = description;
+            this.location = location;
+            this.nanos = nanos;
+            this.blockAnalysisCount = blockAnalysisCount;
+            this.wideningCount = wideningCount;
+            this.largestStoreSize = largestStoreSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    Locale.ROOT,
+                    "%s: %d ms, %s, %s: %d block analyses, %d widenings, largest store %d",
+                    location,
+                    nanos / 1_000_000,
+                    checkerName,
+                    description,
+                    blockAnalysisCount,
+                    wideningCount,
+                    largestStoreSize);
+        }
+    }
+}
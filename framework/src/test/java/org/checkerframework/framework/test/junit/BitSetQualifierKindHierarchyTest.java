@@ -0,0 +1,108 @@
+package org.checkerframework.framework.test.junit;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1Bot;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1Invalid;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1Poly;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1S1;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1S2;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H1Top;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H2Bot;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H2Poly;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H2S1;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H2S2;
+import org.checkerframework.framework.testchecker.h1h2checker.quals.H2Top;
+import org.checkerframework.framework.testchecker.lubglb.quals.A;
+import org.checkerframework.framework.testchecker.lubglb.quals.B;
+import org.checkerframework.framework.testchecker.lubglb.quals.C;
+import org.checkerframework.framework.testchecker.lubglb.quals.D;
+import org.checkerframework.framework.testchecker.lubglb.quals.E;
+import org.checkerframework.framework.testchecker.lubglb.quals.F;
+import org.checkerframework.framework.testchecker.lubglb.quals.Poly;
+import org.checkerframework.framework.util.BitSetQualifierKindHierarchy;
+import org.checkerframework.framework.util.DefaultQualifierKindHierarchy;
+import org.checkerframework.framework.util.QualifierKind;
+import org.checkerframework.framework.util.QualifierKindHierarchy;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link BitSetQualifierKindHierarchy} gives the same answers as {@link
+ * DefaultQualifierKindHierarchy}.
+ */
+public class BitSetQualifierKindHierarchyTest {
+
+    /** A single hierarchy with a polymorphic qualifier and multiple inheritance. */
+    @Test
+    public void testLubGlbHierarchy() {
+        checkSameAsDefault(
+                Arrays.asList(A.class, B.class, C.class, D.class, E.class, F.class, Poly.class));
+    }
+
+    /** Two hierarchies, each with a polymorphic qualifier. */
+    @Test
+    public void testTwoHierarchies() {
+        checkSameAsDefault(
+                Arrays.asList(
+                        H1Top.class,
+                        H1S1.class,
+                        H1S2.class,
+                        H1Bot.class,
+                        H2Top.class,
+                        H2S1.class,
+                        H2S2.class,
+                        H2Bot.class,
+                        H1Poly.class,
+                        H2Poly.class,
+                        H1Invalid.class));
+    }
+
+    /**
+     * Checks that subtype, lub, and glb queries on every pair of qualifier kinds give the same
+     * answers for a {@link BitSetQualifierKindHierarchy} as for a {@link
+     * DefaultQualifierKindHierarchy} created from the same qualifiers.
+     *
+     * @param qualifierClasses the qualifiers of the hierarchies
+     */
+    private static void checkSameAsDefault(
+            Collection<Class<? extends Annotation>> qualifierClasses) {
+        QualifierKindHierarchy expected = new DefaultQualifierKindHierarchy(qualifierClasses);
+        QualifierKindHierarchy actual = new BitSetQualifierKindHierarchy(qualifierClasses);
+        List<? extends QualifierKind> expectedKinds = expected.allQualifierKinds();
+        List<? extends QualifierKind> actualKinds = actual.allQualifierKinds();
+        Assert.assertEquals(expectedKinds.size(), actualKinds.size());
+
+        for (int i = 0; i < expectedKinds.size(); i++) {
+            for (int j = 0; j < expectedKinds.size(); j++) {
+                QualifierKind e1 = expectedKinds.get(i);
+                QualifierKind e2 = expectedKinds.get(j);
+                QualifierKind a1 = actualKinds.get(i);
+                QualifierKind a2 = actualKinds.get(j);
+                String message = e1 + ", " + e2;
+                Assert.assertEquals(message, e1.getName(), a1.getName());
+                Assert.assertEquals(message, e1.isSubtypeOf(e2), a1.isSubtypeOf(a2));
+                Assert.assertEquals(
+                        message,
+                        name(expected.leastUpperBound(e1, e2)),
+                        name(actual.leastUpperBound(a1, a2)));
+                Assert.assertEquals(
+                        message,
+                        name(expected.greatestLowerBound(e1, e2)),
+                        name(actual.greatestLowerBound(a1, a2)));
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the given qualifier kind, or null.
+     *
+     * @param kind a qualifier kind, or null
+     * @return the name of {@code kind}, or null if {@code kind} is null
+     */
+    private static String name(QualifierKind kind) {
+        return kind == null ? null : kind.getName();
+    }
+}
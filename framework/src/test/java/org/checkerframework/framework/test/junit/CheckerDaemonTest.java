@@ -0,0 +1,405 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.util.CheckerDaemon;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests requests to a {@link CheckerDaemon} that runs in this JVM, and the fallback of {@link
+ * CheckerDaemon#compile} when the daemon is not running or refuses a request.
+ */
+public class CheckerDaemonTest {
+
+    /** How long to wait for the daemon to start or stop, in ms. */
+    private static final long WAIT_MILLIS = 10_000;
+
+    /** A request runs javac and returns its output and exit status. */
+    @Test
+    public void testAccept() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        try {
+            Path portFile = dir.resolve("port");
+            Thread daemon = startDaemon(portFile);
+
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            Integer exitStatus =
+                    compile(
+                            portFile,
+                            ManagementFactory.getRuntimeMXBean().getInputArguments(),
+                            dir,
+                            "class Ok {}",
+                            stderr);
+            Assert.assertEquals(stderr.toString("UTF-8"), Integer.valueOf(0), exitStatus);
+            Assert.assertTrue(Files.exists(dir.resolve("Ok.class")));
+
+            stderr = new ByteArrayOutputStream();
+            exitStatus =
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            dir,
+                            "class Bad { int x = \"\"; }",
+                            stderr);
+            Assert.assertEquals(Integer.valueOf(1), exitStatus);
+            Assert.assertTrue(stderr.toString("UTF-8"), stderr.toString("UTF-8").contains("Bad"));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /** A request with the wrong token is refused, and the daemon keeps serving. */
+    @Test
+    public void testWrongToken() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        try {
+            Path portFile = dir.resolve("port");
+            Thread daemon = startDaemon(portFile);
+
+            String[] portAndToken =
+                    new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).split(" ");
+            char[] wrongToken = new char[portAndToken[1].length()];
+            Arrays.fill(wrongToken, '0');
+            Path wrongPortFile = dir.resolve("wrong-port");
+            Files.write(
+                    wrongPortFile,
+                    (portAndToken[0] + " " + new String(wrongToken))
+                            .getBytes(StandardCharsets.UTF_8));
+            Assert.assertNull(
+                    compile(
+                            wrongPortFile,
+                            Collections.emptyList(),
+                            dir,
+                            "class Ok {}",
+                            new ByteArrayOutputStream()));
+            Assert.assertFalse(Files.exists(dir.resolve("Ok.class")));
+
+            Assert.assertEquals(
+                    Integer.valueOf(0),
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            dir,
+                            "class Ok {}",
+                            new ByteArrayOutputStream()));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /** A request from a different working directory is refused. */
+    @Test
+    public void testDifferentWorkingDirectory() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        String workingDirectory = System.getProperty("user.dir");
+        try {
+            Path portFile = dir.resolve("port");
+            Thread daemon = startDaemon(portFile);
+
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            Integer exitStatus;
+            System.setProperty("user.dir", dir.toString());
+            try {
+                exitStatus =
+                        compile(portFile, Collections.emptyList(), dir, "class Ok {}", stderr);
+            } finally {
+                System.setProperty("user.dir", workingDirectory);
+            }
+            Assert.assertNull(exitStatus);
+            Assert.assertTrue(
+                    stderr.toString("UTF-8"),
+                    stderr.toString("UTF-8").contains("the daemon runs in " + workingDirectory));
+            Assert.assertFalse(Files.exists(dir.resolve("Ok.class")));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /** A request for a JVM option that the daemon was not started with is refused. */
+    @Test
+    public void testMissingJvmOption() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        try {
+            Path portFile = dir.resolve("port");
+            Thread daemon = startDaemon(portFile);
+
+            String option = "-Dorg.checkerframework.framework.test.no.such.option=true";
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            Assert.assertNull(
+                    compile(
+                            portFile,
+                            Collections.singletonList(option),
+                            dir,
+                            "class Ok {}",
+                            stderr));
+            Assert.assertTrue(stderr.toString("UTF-8"), stderr.toString("UTF-8").contains(option));
+            Assert.assertFalse(Files.exists(dir.resolve("Ok.class")));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * A request for a {@code checker.jar} that is not on the classpath of the daemon, or that has
+     * changed since the daemon started, is refused.
+     */
+    @Test
+    public void testCheckerJar() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        String classpath = System.getProperty("java.class.path");
+        try {
+            Path portFile = dir.resolve("port");
+            Path checkerJar = dir.resolve("checker.jar");
+            Files.write(checkerJar, new byte[0]);
+            Thread daemon;
+            System.setProperty("java.class.path", classpath + File.pathSeparator + checkerJar);
+            try {
+                daemon = startDaemon(portFile);
+            } finally {
+                System.setProperty("java.class.path", classpath);
+            }
+
+            Assert.assertEquals(
+                    Integer.valueOf(0),
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            Collections.singletonList(checkerJar.toString()),
+                            dir,
+                            "class Ok {}",
+                            new ByteArrayOutputStream()));
+
+            String otherJar = dir.resolve("other.jar").toString();
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            Assert.assertNull(
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            Collections.singletonList(otherJar),
+                            dir,
+                            "class Ok {}",
+                            stderr));
+            Assert.assertTrue(
+                    stderr.toString("UTF-8"),
+                    stderr.toString("UTF-8").contains("not started with " + otherJar));
+
+            File jarFile = checkerJar.toFile();
+            Assert.assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10_000));
+            stderr = new ByteArrayOutputStream();
+            Assert.assertNull(
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            Collections.singletonList(checkerJar.toString()),
+                            dir,
+                            "class Ok {}",
+                            stderr));
+            Assert.assertTrue(
+                    stderr.toString("UTF-8"),
+                    stderr.toString("UTF-8").contains("has changed since the daemon started"));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /** A malformed request affects only its own connection. */
+    @Test
+    public void testMalformedRequest() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        try {
+            Path portFile = dir.resolve("port");
+            Thread daemon = startDaemon(portFile);
+
+            int port =
+                    Integer.parseInt(
+                            new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8)
+                                    .split(" ")[0]);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeInt(Integer.MAX_VALUE);
+                out.flush();
+                Assert.assertEquals(-1, socket.getInputStream().read());
+            }
+
+            Assert.assertEquals(
+                    Integer.valueOf(0),
+                    compile(
+                            portFile,
+                            Collections.emptyList(),
+                            dir,
+                            "class Ok {}",
+                            new ByteArrayOutputStream()));
+
+            stopDaemon(portFile, daemon);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /** Without a running daemon, the client falls back silently. */
+    @Test
+    public void testNoDaemon() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        try {
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            Assert.assertNull(
+                    compile(
+                            dir.resolve("port"),
+                            Collections.emptyList(),
+                            dir,
+                            "class Ok {}",
+                            stderr));
+
+            int port;
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                port = server.getLocalPort();
+            }
+            Path stalePortFile = dir.resolve("stale-port");
+            Files.write(stalePortFile, (port + " 0123").getBytes(StandardCharsets.UTF_8));
+            Assert.assertNull(
+                    compile(stalePortFile, Collections.emptyList(), dir, "class Ok {}", stderr));
+
+            Assert.assertEquals("", stderr.toString("UTF-8"));
+            Assert.assertFalse(Files.exists(dir.resolve("Ok.class")));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Starts a daemon in a new thread, and waits until it has written its port file.
+     *
+     * @param portFile the port file of the daemon
+     * @return the thread that runs the daemon
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static Thread startDaemon(Path portFile) throws InterruptedException {
+        Thread daemon =
+                new Thread(
+                        () -> {
+                            try {
+                                CheckerDaemon.main(new String[] {portFile.toString()});
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+        daemon.setDaemon(true);
+        daemon.start();
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!Files.exists(portFile)) {
+            Assert.assertTrue("The daemon did not start", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        return daemon;
+    }
+
+    /**
+     * Deletes the port file of a daemon, and checks that the daemon stops.
+     *
+     * @param portFile the port file of the daemon
+     * @param daemon the thread that runs the daemon
+     * @throws IOException if the port file cannot be deleted
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void stopDaemon(Path portFile, Thread daemon)
+            throws IOException, InterruptedException {
+        Files.delete(portFile);
+        daemon.join(WAIT_MILLIS);
+        Assert.assertFalse("The daemon did not stop", daemon.isAlive());
+    }
+
+    /**
+     * Writes a source file and asks the daemon to compile it into the same directory, without
+     * requiring any file on the classpath of the daemon.
+     *
+     * @param portFile the port file of the daemon
+     * @param jvmOptions the JVM options that the daemon must have been started with
+     * @param dir the directory of the source file and the class file
+     * @param source the contents of the source file, which declares a class
+     * @param stderr where to write the standard error of javac
+     * @return what {@link CheckerDaemon#compile} returns
+     * @throws IOException if the source file cannot be written
+     */
+    private static @Nullable Integer compile(
+            Path portFile,
+            List<String> jvmOptions,
+            Path dir,
+            String source,
+            ByteArrayOutputStream stderr)
+            throws IOException {
+        return compile(portFile, jvmOptions, Collections.emptyList(), dir, source, stderr);
+    }
+
+    /**
+     * Writes a source file and asks the daemon to compile it into the same directory.
+     *
+     * @param portFile the port file of the daemon
+     * @param jvmOptions the JVM options that the daemon must have been started with
+     * @param classpath the files that must be on the classpath of the daemon, unchanged
+     * @param dir the directory of the source file and the class file
+     * @param source the contents of the source file, which declares a class
+     * @param stderr where to write the standard error of javac
+     * @return what {@link CheckerDaemon#compile} returns
+     * @throws IOException if the source file cannot be written
+     */
+    private static @Nullable Integer compile(
+            Path portFile,
+            List<String> jvmOptions,
+            List<String> classpath,
+            Path dir,
+            String source,
+            ByteArrayOutputStream stderr)
+            throws IOException {
+        String className = source.split(" ")[1];
+        Path sourceFile = dir.resolve(className + ".java");
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        return CheckerDaemon.compile(
+                portFile.toFile(),
+                jvmOptions,
+                classpath,
+                Arrays.asList("-d", dir.toString(), sourceFile.toString()),
+                new ByteArrayOutputStream(),
+                stderr);
+    }
+
+    /**
+     * Deletes a directory and the files in it.
+     *
+     * @param dir the directory
+     * @throws IOException if deleting fails
+     */
+    private static void delete(Path dir) throws IOException {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,204 @@
+package org.checkerframework.framework.test.junit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.checkerframework.framework.flow.CopyOnWriteHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that a {@link CopyOnWriteHashMap} and its copies never see one another's modifications,
+ * whichever way a map is modified.
+ */
+public class CopyOnWriteHashMapTest {
+
+    /** After a copy, modifying either map does not affect the other. */
+    @Test
+    public void testCopiesAreIndependent() {
+        CopyOnWriteHashMap<String, Integer> original = map("a", 1, "b", 2);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+        Assert.assertEquals(original, copy);
+
+        copy.put("c", 3);
+        original.remove("a");
+        Assert.assertEquals(expected("b", 2), original);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), copy);
+
+        // Each map is written in place from now on, still without affecting the other.
+        original.put("b", 20);
+        copy.remove("b");
+        Assert.assertEquals(expected("b", 20), original);
+        Assert.assertEquals(expected("a", 1, "c", 3), copy);
+
+        // A copy of a copy.
+        CopyOnWriteHashMap<String, Integer> copyOfCopy = new CopyOnWriteHashMap<>(copy);
+        copyOfCopy.put("a", 10);
+        Assert.assertEquals(expected("a", 1, "c", 3), copy);
+        Assert.assertEquals(expected("a", 10, "c", 3), copyOfCopy);
+    }
+
+    /** Removing through an iterator of a shared map copies it first. */
+    @Test
+    public void testIteratorRemoveWhileShared() {
+        CopyOnWriteHashMap<String, Integer> original = map("a", 1, "b", 2, "c", 3);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+
+        Iterator<String> keys = copy.keySet().iterator();
+        int visited = 0;
+        while (keys.hasNext()) {
+            String key = keys.next();
+            visited++;
+            if (!key.equals("b")) {
+                keys.remove();
+            }
+        }
+        Assert.assertEquals(3, visited);
+        Assert.assertEquals(expected("b", 2), copy);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        Iterator<Integer> values = original.values().iterator();
+        values.next();
+        values.remove();
+        Assert.assertEquals(2, original.size());
+        Assert.assertEquals(expected("b", 2), copy);
+
+        Iterator<Map.Entry<String, Integer>> entries = original.entrySet().iterator();
+        try {
+            entries.remove();
+            Assert.fail("remove() before next() should fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /** Setting the value of an entry of a shared map copies it first, and writes through. */
+    @Test
+    public void testEntrySetValueWhileShared() {
+        CopyOnWriteHashMap<String, Integer> original = map("a", 1, "b", 2);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+
+        for (Map.Entry<String, Integer> entry : copy.entrySet()) {
+            Assert.assertEquals(entry.getValue(), entry.setValue(entry.getValue() * 10));
+            Assert.assertEquals(copy.get(entry.getKey()), entry.getValue());
+        }
+        Assert.assertEquals(expected("a", 10, "b", 20), copy);
+        Assert.assertEquals(expected("a", 1, "b", 2), original);
+
+        original.replaceAll((k, v) -> v + 1);
+        Assert.assertEquals(expected("a", 2, "b", 3), original);
+        Assert.assertEquals(expected("a", 10, "b", 20), copy);
+    }
+
+    /** Bulk modifications of a map after a copy do not affect the copy. */
+    @Test
+    public void testBulkOperationsAfterCopy() {
+        CopyOnWriteHashMap<String, Integer> original = map("a", 1, "b", 2, "c", 3);
+
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+        copy.clear();
+        Assert.assertTrue(copy.isEmpty());
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        copy = new CopyOnWriteHashMap<>(original);
+        copy.putAll(expected("b", 20, "d", 4));
+        Assert.assertEquals(expected("a", 1, "b", 20, "c", 3, "d", 4), copy);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        copy = new CopyOnWriteHashMap<>(original);
+        // Fewer elements to remove than keys: AbstractSet.removeAll calls remove on the set.
+        Assert.assertTrue(copy.keySet().removeAll(Collections.singleton("a")));
+        Assert.assertEquals(expected("b", 2, "c", 3), copy);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        copy = new CopyOnWriteHashMap<>(original);
+        // More elements to remove than keys: AbstractSet.removeAll removes through the iterator.
+        Assert.assertTrue(copy.keySet().removeAll(Arrays.asList("a", "c", "x", "y")));
+        Assert.assertEquals(expected("b", 2), copy);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        copy = new CopyOnWriteHashMap<>(original);
+        Assert.assertTrue(copy.values().retainAll(Collections.singleton(3)));
+        Assert.assertEquals(expected("c", 3), copy);
+        copy.entrySet().clear();
+        Assert.assertTrue(copy.isEmpty());
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        // Operations that do not change the map leave it shared, and the copy still independent.
+        copy = new CopyOnWriteHashMap<>(original);
+        Assert.assertNull(copy.remove("x"));
+        Assert.assertFalse(copy.keySet().remove("x"));
+        copy.putAll(Collections.emptyMap());
+        original.put("a", 10);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), copy);
+    }
+
+    /** An iteration over one map is not affected by modifications of a copy. */
+    @Test
+    public void testIterateWhileOtherCopyIsModified() {
+        CopyOnWriteHashMap<String, Integer> original = map("a", 1, "b", 2, "c", 3);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+
+        Map<String, Integer> seen = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : original.entrySet()) {
+            seen.put(entry.getKey(), entry.getValue());
+            copy.put("x" + seen.size(), seen.size());
+            copy.remove(entry.getKey());
+        }
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), seen);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+        Assert.assertEquals(expected("x1", 1, "x2", 2, "x3", 3), copy);
+
+        // A copy made during an iteration, then modified, does not disturb the iteration either.
+        seen.clear();
+        for (String key : original.keySet()) {
+            seen.put(key, original.get(key));
+            CopyOnWriteHashMap<String, Integer> snapshot = new CopyOnWriteHashMap<>(original);
+            snapshot.clear();
+            snapshot.put("y", 0);
+        }
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), seen);
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), original);
+
+        // A map that becomes shared during an iteration is copied before a removal.
+        CopyOnWriteHashMap<String, Integer> snapshot = null;
+        Iterator<String> keys = original.keySet().iterator();
+        while (keys.hasNext()) {
+            keys.next();
+            if (snapshot == null) {
+                snapshot = new CopyOnWriteHashMap<>(original);
+            }
+            keys.remove();
+        }
+        Assert.assertTrue(original.isEmpty());
+        Assert.assertEquals(expected("a", 1, "b", 2, "c", 3), snapshot);
+    }
+
+    /**
+     * Returns a new {@link CopyOnWriteHashMap} with the given mappings.
+     *
+     * @param keysAndValues alternating keys and values
+     * @return a new map with the given mappings
+     */
+    private static CopyOnWriteHashMap<String, Integer> map(Object... keysAndValues) {
+        CopyOnWriteHashMap<String, Integer> result = new CopyOnWriteHashMap<>();
+        result.putAll(expected(keysAndValues));
+        return result;
+    }
+
+    /**
+     * Returns a {@link HashMap} with the given mappings.
+     *
+     * @param keysAndValues alternating keys and values
+     * @return a map with the given mappings
+     */
+    private static Map<String, Integer> expected(Object... keysAndValues) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            result.put((String) keysAndValues[i], (Integer) keysAndValues[i + 1]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package org.checkerframework.framework.test.junit;
+
+import javax.tools.Diagnostic;
+import org.checkerframework.framework.source.DiagMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the deferred arguments of {@link DiagMessage}. */
+public class DiagMessageTest {
+
+    /** A deferred argument is computed when it is resolved, and only once. */
+    @Test
+    public void testDeferredArgComputedOnce() {
+        int[] calls = {0};
+        Object arg =
+                DiagMessage.deferred(
+                        () -> {
+                            calls[0]++;
+                            return "value";
+                        });
+        Assert.assertEquals(0, calls[0]);
+        Assert.assertEquals("value", DiagMessage.resolveArg(arg));
+        Assert.assertEquals("value", DiagMessage.resolveArg(arg));
+        Assert.assertEquals("value", arg.toString());
+        Assert.assertEquals(1, calls[0]);
+    }
+
+    /** An argument that is not deferred resolves to itself. */
+    @Test
+    public void testResolveOrdinaryArg() {
+        Object arg = new Object();
+        Assert.assertSame(arg, DiagMessage.resolveArg(arg));
+    }
+
+    /** Messages with deferred arguments are equal if the values of the arguments are equal. */
+    @Test
+    public void testEquals() {
+        DiagMessage m1 =
+                new DiagMessage(Diagnostic.Kind.ERROR, "key", DiagMessage.deferred(() -> "a"));
+        DiagMessage m2 =
+                new DiagMessage(Diagnostic.Kind.ERROR, "key", DiagMessage.deferred(() -> "a"));
+        DiagMessage m3 =
+                new DiagMessage(Diagnostic.Kind.ERROR, "key", DiagMessage.deferred(() -> "b"));
+        Assert.assertEquals(m1, m2);
+        Assert.assertEquals(m1.hashCode(), m2.hashCode());
+        Assert.assertFalse(m1.equals(m3));
+    }
+}
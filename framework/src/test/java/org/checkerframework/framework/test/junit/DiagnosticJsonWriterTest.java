@@ -0,0 +1,116 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import javax.tools.Diagnostic;
+import org.checkerframework.framework.source.DiagnosticJsonWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the lines that {@link DiagnosticJsonWriter} writes. */
+public class DiagnosticJsonWriterTest {
+
+    /** The found and required types are taken from the arguments that the format labels so. */
+    @Test
+    public void testFoundAndRequired() throws IOException {
+        String format =
+                "incompatible argument for parameter %s of %s.%nfound   : %s%nrequired: %s";
+        Object[] args = {"x", "m", "@Nullable String", "@NonNull String"};
+        String line =
+                write(
+                        Diagnostic.Kind.ERROR,
+                        "argument.type.incompatible",
+                        format,
+                        String.format(format, args),
+                        args);
+        Assert.assertTrue(line, line.contains("\"kind\": \"error\""));
+        Assert.assertTrue(line, line.contains("\"found\": \"@Nullable String\""));
+        Assert.assertTrue(line, line.contains("\"required\": \"@NonNull String\""));
+        Assert.assertTrue(
+                line,
+                line.contains(
+                        "\"arguments\": [\"x\", \"m\", "
+                                + "\"@Nullable String\", \"@NonNull String\"]"));
+    }
+
+    /** A diagnostic is written on one line, even if its message has several. */
+    @Test
+    public void testOneLinePerDiagnostic() throws IOException {
+        String line =
+                write(
+                        Diagnostic.Kind.MANDATORY_WARNING,
+                        "some.key",
+                        "a \"quoted\" %s%nsecond line",
+                        "a \"quoted\" word\nsecond line",
+                        new Object[] {"word"});
+        Assert.assertEquals(line, 1, line.split("\n", -1).length - 1);
+        Assert.assertTrue(line, line.endsWith("\n"));
+        Assert.assertTrue(line, line.contains("\"kind\": \"warning\""));
+        Assert.assertTrue(
+                line, line.contains("\"message\": \"a \\\"quoted\\\" word\\nsecond line\""));
+        Assert.assertFalse(line, line.contains("\"found\""));
+        Assert.assertFalse(line, line.contains("\"file\""));
+    }
+
+    /**
+     * A diagnostic that is formatted when it is reported and written when it is printed is written
+     * as if it were written directly.
+     */
+    @Test
+    public void testFormatThenWrite() throws IOException {
+        Object[] args = {"word"};
+        String json =
+                DiagnosticJsonWriter.toJson(
+                        "p.TestChecker",
+                        Diagnostic.Kind.ERROR,
+                        "some.key",
+                        "a %s",
+                        "a word",
+                        args,
+                        null,
+                        null,
+                        null);
+        Assert.assertFalse(json, json.contains("\n"));
+        StringWriter out = new StringWriter();
+        try (DiagnosticJsonWriter writer = new DiagnosticJsonWriter(out)) {
+            writer.write(json);
+        }
+        Assert.assertEquals(
+                write(Diagnostic.Kind.ERROR, "some.key", "a %s", "a word", args),
+                out.toString().replace(System.lineSeparator(), "\n"));
+    }
+
+    /**
+     * Writes one diagnostic that has no source position.
+     *
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param messageFormat the format string of the message
+     * @param message the message
+     * @param args the arguments of the message
+     * @return what the writer wrote
+     * @throws IOException if writing fails
+     */
+    private String write(
+            Diagnostic.Kind kind,
+            String messageKey,
+            String messageFormat,
+            String message,
+            Object[] args)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        try (DiagnosticJsonWriter writer = new DiagnosticJsonWriter(out)) {
+            writer.write(
+                    "p.TestChecker",
+                    kind,
+                    messageKey,
+                    messageFormat,
+                    message,
+                    args,
+                    null,
+                    null,
+                    null);
+        }
+        return out.toString().replace(System.lineSeparator(), "\n");
+    }
+}
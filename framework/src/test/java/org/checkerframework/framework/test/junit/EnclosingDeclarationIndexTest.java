@@ -0,0 +1,134 @@
+package org.checkerframework.framework.test.junit;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.framework.source.EnclosingDeclarationIndex;
+import org.checkerframework.framework.source.EnclosingDeclarationIndex.Enclosing;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link EnclosingDeclarationIndex} agrees with the tree paths of a compilation unit.
+ */
+public class EnclosingDeclarationIndexTest {
+
+    /** The compiler task that parsed the most recent compilation unit. */
+    private JavacTask task;
+
+    /** Every tree is enclosed by the same declarations as {@link Trees#getPath} says. */
+    @Test
+    public void testAgreesWithTreePaths() throws IOException {
+        String source =
+                String.join(
+                        "\n",
+                        "package p;",
+                        "@SuppressWarnings(\"all\")",
+                        "class Outer {",
+                        "    int a = 1, b = a + 1;",
+                        "    static { int local = 2; }",
+                        "    @Deprecated Outer(int x) { this.a = x; }",
+                        "    <T> T m(T t, java.util.List<? extends T> list) {",
+                        "        Runnable r = () -> { int y = a; };",
+                        "        for (T u : list) { t = u; }",
+                        "        class Local { int f() { return b; } }",
+                        "        return t;",
+                        "    }",
+                        "    enum E { X, Y; int g() { return 0; } }",
+                        "    interface I { default void h(int p) {} }",
+                        "}",
+                        "class Second { void n() {} }");
+        CompilationUnitTree root = parse(source);
+        Trees trees = Trees.instance(task);
+        SourcePositions positions = trees.getSourcePositions();
+        EnclosingDeclarationIndex index = new EnclosingDeclarationIndex(root, positions);
+        int[] count = {0};
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void scan(Tree tree, Void p) {
+                if (tree != null) {
+                    Enclosing expected = Enclosing.of(trees.getPath(root, tree));
+                    Enclosing actual = index.lookup(tree);
+                    if (actual != null) {
+                        count[0]++;
+                        String msg = tree.getKind() + " " + tree;
+                        Assert.assertSame(msg, expected.variable, actual.variable);
+                        Assert.assertSame(msg, expected.method, actual.method);
+                        Assert.assertSame(msg, expected.classTree, actual.classTree);
+                    }
+                }
+                return super.scan(tree, p);
+            }
+        }.scan(root, null);
+        Assert.assertTrue("too few trees were looked up: " + count[0], count[0] > 50);
+    }
+
+    /** The arguments of an anonymous class instance creation are not within the anonymous class. */
+    @Test
+    public void testAnonymousClass() throws IOException {
+        String source =
+                String.join(
+                        "\n",
+                        "class Anon {",
+                        "    Object o = new Object() { int f = 1; };",
+                        "    Thread t = new Thread(\"name\") {};",
+                        "}");
+        CompilationUnitTree root = parse(source);
+        EnclosingDeclarationIndex index =
+                new EnclosingDeclarationIndex(root, Trees.instance(task).getSourcePositions());
+        int fieldStart = source.indexOf("f = 1");
+        int argStart = source.indexOf("\"name\"");
+        new TreePathScanner<Void, Void>() {
+            @Override
+            public Void visitLiteral(LiteralTree tree, Void p) {
+                Enclosing enclosing = index.lookup(tree);
+                Assert.assertNotNull(enclosing);
+                Assert.assertEquals("Anon", enclosing.classTree.getSimpleName().toString());
+                long start =
+                        Trees.instance(task).getSourcePositions().getStartPosition(root, tree);
+                if (start > fieldStart && start < fieldStart + 5) {
+                    Assert.assertEquals("f", enclosing.variable.getName().toString());
+                } else if (start == argStart) {
+                    Assert.assertEquals("t", enclosing.variable.getName().toString());
+                }
+                return super.visitLiteral(tree, p);
+            }
+        }.scan(root, null);
+    }
+
+    /**
+     * Parses the given source code.
+     *
+     * @param source the source code of a compilation unit
+     * @return the compilation unit
+     * @throws IOException if parsing fails
+     */
+    private CompilationUnitTree parse(String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject file =
+                new SimpleJavaFileObject(
+                        URI.create("string:///Test.java"), JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return source;
+                    }
+                };
+        task =
+                (JavacTask)
+                        compiler.getTask(
+                                null, null, null, null, null, Collections.singletonList(file));
+        return task.parse().iterator().next();
+    }
+}
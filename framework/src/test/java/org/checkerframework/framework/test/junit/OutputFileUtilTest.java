@@ -0,0 +1,68 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import org.checkerframework.common.wholeprograminference.OutputFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests that {@link OutputFileUtil} rewrites a file only if its contents change. */
+public class OutputFileUtilTest {
+
+    /** A file is created, left alone if unchanged, and replaced if changed. */
+    @Test
+    public void testWriteIfChanged() throws IOException {
+        Path dir = Files.createTempDirectory("output-file-util-test");
+        Path file = dir.resolve("Foo.ajava");
+        try {
+            Assert.assertTrue(OutputFileUtil.writeIfChanged(file.toString(), "class Foo {}"));
+            Assert.assertFalse(OutputFileUtil.writeIfChanged(file.toString(), "class Foo {}"));
+            Assert.assertTrue(OutputFileUtil.writeIfChanged(file.toString(), "class Foo { }"));
+            Assert.assertEquals(
+                    "class Foo { }", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            // No temporary file is left behind.
+            File[] files = dir.toFile().listFiles();
+            Assert.assertNotNull(files);
+            Assert.assertEquals(1, files.length);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * A new file gets the default permissions, as if it had been written directly, and a replaced
+     * file keeps its permissions.
+     */
+    @Test
+    public void testPermissions() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        Path dir = Files.createTempDirectory("output-file-util-test");
+        Path file = dir.resolve("Foo.ajava");
+        Path plain = dir.resolve("Plain.ajava");
+        try {
+            Files.createFile(plain);
+            OutputFileUtil.writeIfChanged(file.toString(), "class Foo {}");
+            Assert.assertEquals(
+                    Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(file));
+
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+            Files.setPosixFilePermissions(file, permissions);
+            OutputFileUtil.writeIfChanged(file.toString(), "class Foo { }");
+            Assert.assertEquals(permissions, Files.getPosixFilePermissions(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(plain);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import org.checkerframework.framework.util.JsonUtil;
+import org.checkerframework.framework.util.PhaseProfiler;
+import org.checkerframework.framework.util.PhaseProfiler.Phase;
+import org.checkerframework.javacutil.BugInCF;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the nesting of phases in {@link PhaseProfiler} and its JSON output. */
+public class PhaseProfilerTest {
+
+    /** Nested phases, including a phase nested in itself, are counted per class. */
+    @Test
+    public void testNestedPhases() throws IOException {
+        PhaseProfiler profiler = new PhaseProfiler("my.Checker");
+        profiler.start(Phase.STUB_PARSING);
+        profiler.stop(Phase.STUB_PARSING);
+        profiler.setCurrentClass("my.Class");
+        profiler.start(Phase.TYPE_CHECKING);
+        profiler.start(Phase.TREE_ANNOTATION);
+        profiler.start(Phase.TREE_ANNOTATION);
+        profiler.stop(Phase.TREE_ANNOTATION);
+        profiler.stop(Phase.TREE_ANNOTATION);
+        profiler.stop(Phase.TYPE_CHECKING);
+
+        String json = toJson(profiler);
+        Assert.assertTrue(json, json.contains("\"checker\": \"my.Checker\""));
+        Assert.assertTrue(json, json.contains("\"class\": \"" + PhaseProfiler.NO_CLASS + "\""));
+        Assert.assertTrue(json, json.contains("\"class\": \"my.Class\""));
+        Assert.assertTrue(json, json.matches("(?s).*\"stubParsing\": \\{[^}]*\"count\": 1}.*"));
+        Assert.assertTrue(json, json.matches("(?s).*\"treeAnnotation\": \\{[^}]*\"count\": 2}.*"));
+        Assert.assertFalse(json, json.contains("dataflow"));
+    }
+
+    /** Stopping an enclosing phase also stops the nested phases that were not stopped. */
+    @Test
+    public void testUnstoppedNestedPhase() throws IOException {
+        PhaseProfiler profiler = new PhaseProfiler("my.Checker");
+        profiler.setCurrentClass("my.Class");
+        profiler.start(Phase.TYPE_CHECKING);
+        profiler.start(Phase.DATAFLOW);
+        profiler.start(Phase.DEFAULTING);
+        profiler.stop(Phase.TYPE_CHECKING);
+
+        // All phases are stopped, so a new phase can be started and stopped.
+        profiler.start(Phase.CFG_CONSTRUCTION);
+        profiler.stop(Phase.CFG_CONSTRUCTION);
+        String json = toJson(profiler);
+        Assert.assertTrue(json, json.contains("\"defaulting\""));
+        Assert.assertTrue(json, json.contains("\"cfgConstruction\""));
+    }
+
+    /** Stopping a phase that is not active is an error. */
+    @Test(expected = BugInCF.class)
+    public void testStopInactivePhase() {
+        PhaseProfiler profiler = new PhaseProfiler("my.Checker");
+        profiler.start(Phase.TYPE_CHECKING);
+        profiler.stop(Phase.DATAFLOW);
+    }
+
+    /** Class names are escaped in the output. */
+    @Test
+    public void testJsonString() {
+        Assert.assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", JsonUtil.jsonString("a\"b\\c\n\u0001"));
+    }
+
+    /**
+     * Returns the output of the given profiler.
+     *
+     * @param profiler a profiler
+     * @return the JSON output of {@code profiler}
+     * @throws IOException if writing fails
+     */
+    private static String toJson(PhaseProfiler profiler) throws IOException {
+        StringWriter out = new StringWriter();
+        PhaseProfiler.writeJson(Collections.singletonList(profiler), out);
+        return out.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package org.checkerframework.framework.test.junit;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -430,6 +431,139 @@ public class RangeTest {
         }
     }
 
+    /**
+     * The arithmetic operations use {@code long} arithmetic unless it overflows. Checks that their
+     * results are the same as those of the exact computation with {@code BigInteger}, with and
+     * without {@code Range.ignoreOverflow}.
+     */
+    @Test
+    public void testArithmeticAgreesWithBigInteger() {
+        Range[] shifts = {
+            Range.create(0, 0), Range.create(0, 5), Range.create(3, 31), Range.create(31, 31)
+        };
+        for (boolean ignoreOverflow : new boolean[] {false, true}) {
+            Range.ignoreOverflow = ignoreOverflow;
+            try {
+                for (Range r1 : ranges) {
+                    BigInteger from1 = BigInteger.valueOf(r1.from);
+                    BigInteger to1 = BigInteger.valueOf(r1.to);
+                    for (Range r2 : ranges) {
+                        BigInteger from2 = BigInteger.valueOf(r2.from);
+                        BigInteger to2 = BigInteger.valueOf(r2.to);
+                        assertRangeEquals(
+                                "plus",
+                                r1,
+                                r2,
+                                exactRange(from1.add(from2), to1.add(to2)),
+                                r1.plus(r2));
+                        assertRangeEquals(
+                                "minus",
+                                r1,
+                                r2,
+                                exactRange(from1.subtract(to2), to1.subtract(from2)),
+                                r1.minus(r2));
+                        List<BigInteger> products =
+                                Arrays.asList(
+                                        from1.multiply(from2),
+                                        from1.multiply(to2),
+                                        to1.multiply(from2),
+                                        to1.multiply(to2));
+                        assertRangeEquals(
+                                "times",
+                                r1,
+                                r2,
+                                exactRange(Collections.min(products), Collections.max(products)),
+                                r1.times(r2));
+                    }
+                    for (Range shift : shifts) {
+                        Range expected =
+                                exactRange(
+                                        from1.shiftLeft(
+                                                (int) (r1.from >= 0 ? shift.from : shift.to)),
+                                        to1.shiftLeft((int) (r1.to >= 0 ? shift.to : shift.from)));
+                        assertRangeEquals("shiftLeft", r1, shift, expected, r1.shiftLeft(shift));
+                    }
+                }
+            } finally {
+                Range.ignoreOverflow = false;
+            }
+        }
+    }
+
+    /** Checks {@code Range.isWiderThan} against the exact width of each range. */
+    @Test
+    public void testIsWiderThan() {
+        long[] limits = {Long.MIN_VALUE, -1, 0, 1, 10, INT_WIDTH, Long.MAX_VALUE};
+        List<Range> allRanges = new ArrayList<>(Arrays.asList(ranges));
+        allRanges.add(Range.NOTHING);
+        for (Range range : allRanges) {
+            BigInteger width =
+                    BigInteger.valueOf(range.to)
+                            .subtract(BigInteger.valueOf(range.from))
+                            .add(BigInteger.ONE);
+            for (long limit : limits) {
+                Assert.assertEquals(
+                        range + ".isWiderThan(" + limit + ")",
+                        width.compareTo(BigInteger.valueOf(limit)) > 0,
+                        range.isWiderThan(limit));
+            }
+        }
+    }
+
+    /** Operations whose result does not change an operand return that operand. */
+    @Test
+    public void testUnionAndIntersectReuseOperands() {
+        Range small = Range.create(1, 5);
+        Range large = Range.create(0, 10);
+        Assert.assertSame(large, small.union(large));
+        Assert.assertSame(large, large.union(small));
+        Assert.assertSame(small, small.intersect(large));
+        Assert.assertSame(small, large.intersect(small));
+    }
+
+    /**
+     * Returns the range with the given exact bounds, as {@code Range} should compute it: if a bound
+     * is not a {@code long}, the range wraps around or, with {@code Range.ignoreOverflow}, is
+     * clipped.
+     *
+     * @param from the exact lower bound
+     * @param to the exact upper bound
+     * @return the range that {@code Range} should compute for the given bounds
+     */
+    private static Range exactRange(BigInteger from, BigInteger to) {
+        BigInteger longMin = BigInteger.valueOf(Long.MIN_VALUE);
+        BigInteger longMax = BigInteger.valueOf(Long.MAX_VALUE);
+        if (Range.ignoreOverflow) {
+            return Range.create(from.max(longMin).longValue(), to.min(longMax).longValue());
+        }
+        BigInteger longWidth = longMax.subtract(longMin).add(BigInteger.ONE);
+        if (to.subtract(from).add(BigInteger.ONE).compareTo(longWidth) > 0) {
+            return Range.EVERYTHING;
+        }
+        long wrappedFrom = from.longValue();
+        long wrappedTo = to.longValue();
+        return wrappedFrom <= wrappedTo ? Range.create(wrappedFrom, wrappedTo) : Range.EVERYTHING;
+    }
+
+    /**
+     * Asserts that the result of an operation is the expected range.
+     *
+     * @param operation the name of the operation
+     * @param left the left operand
+     * @param right the right operand
+     * @param expected the expected result
+     * @param actual the result of the operation
+     */
+    private static void assertRangeEquals(
+            String operation, Range left, Range right, Range expected, Range actual) {
+        if (!expected.equals(actual)) {
+            Assert.fail(
+                    String.format(
+                            "Range.%s(%s, %s) with ignoreOverflow=%s: expected %s, got %s",
+                            operation, left, right, Range.ignoreOverflow, expected, actual));
+        }
+    }
+
     @Test
     public void testDivide() {
         assert Range.create(1, 2).divide(Range.create(0, 0)) == Range.NOTHING;
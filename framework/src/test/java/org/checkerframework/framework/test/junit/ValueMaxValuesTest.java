@@ -0,0 +1,26 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Tests the Value Checker with a larger limit on the number of values in an annotation. */
+public class ValueMaxValuesTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public ValueMaxValuesTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.common.value.ValueChecker.class,
+                "value-max-values",
+                "-Anomsgtext",
+                "-A" + ValueChecker.MAX_VALUES + "=20");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"value-max-values"};
+    }
+}
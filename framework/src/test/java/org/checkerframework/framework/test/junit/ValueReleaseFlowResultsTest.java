@@ -0,0 +1,32 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the Value Checker issues the same diagnostics with the {@code -AreleaseFlowResults}
+ * command-line option as without it: the test directories and other options are those of {@link
+ * ValueTest}.
+ */
+public class ValueReleaseFlowResultsTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public ValueReleaseFlowResultsTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.common.value.ValueChecker.class,
+                "value",
+                "-Anomsgtext",
+                "-Astubs=tests/value/minints-stub.astub:tests/value/lowercase.astub",
+                "-A" + ValueChecker.REPORT_EVAL_WARNS,
+                "-AreleaseFlowResults");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"value", "all-systems"};
+    }
+}
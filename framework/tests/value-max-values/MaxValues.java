@@ -0,0 +1,25 @@
+import org.checkerframework.common.value.qual.*;
+
+// Run with -AmaxValues=20.
+public class MaxValues {
+
+    // 15 values: more than the default limit, but fewer than 20.
+    void intVals(@IntVal({0, 2, 4, 6, 8, 10, 12, 14, 16, 18, 20, 22, 24, 26, 28}) int x) {
+        @IntVal({1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 21, 23, 25, 27, 29}) int y = x + 1;
+        // :: error: (assignment.type.incompatible)
+        @IntVal({1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 21, 23, 25, 27}) int z = x + 1;
+    }
+
+    void tooManyValuesInt() {
+        // 21 values: more than 20.
+        // :: warning: (too.many.values.given.int)
+        @IntVal({0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20})
+        int a = 20; // a is @IntRange(from=0, to=20)
+    }
+
+    void stringVals(@StringVal({"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k"}) String s) {
+        // s might be null.
+        @StringVal({"ax", "bx", "cx", "dx", "ex", "fx", "gx", "hx", "ix", "jx", "kx", "nullx"})
+        String t = s + "x";
+    }
+}
@@ -0,0 +1,112 @@
+// Most of the types in this file are refined by dataflow.  ValueReleaseFlowResultsTest checks
+// this file with -AreleaseFlowResults, which discards the dataflow results of each method once
+// the visitor has checked it.  The expected errors are the same as without the option (ValueTest).
+
+import java.util.function.IntSupplier;
+import org.checkerframework.common.value.qual.IntVal;
+
+public class ReleaseFlowResults {
+
+    int field = 3;
+
+    @IntVal(3) int fieldCopy = returnsThree();
+
+    ReleaseFlowResults(boolean b) {
+        int x = 1;
+        if (b) {
+            x = 2;
+        }
+        @IntVal({1, 2}) int y = x;
+        // :: error: (assignment.type.incompatible)
+        @IntVal(1) int z = x;
+    }
+
+    @IntVal(3) int returnsThree() {
+        int x = 3;
+        return x;
+    }
+
+    void refinement(boolean b) {
+        int x = 5;
+        @IntVal(5) int y = x;
+        if (b) {
+            x = 7;
+            @IntVal(7) int z = x;
+        }
+        @IntVal({5, 7}) int w = x;
+        // :: error: (assignment.type.incompatible)
+        @IntVal(5) int v = x;
+    }
+
+    // The same code as in refinement: its results must not be confused with those of the method
+    // above, which have been released.
+    void sameCodeInAnotherMethod(boolean b) {
+        int x = 5;
+        @IntVal(5) int y = x;
+        if (b) {
+            x = 7;
+            @IntVal(7) int z = x;
+        }
+        @IntVal({5, 7}) int w = x;
+        // :: error: (assignment.type.incompatible)
+        @IntVal(7) int v = x;
+    }
+
+    IntSupplier lambda(boolean b) {
+        int x = b ? 1 : 2;
+        @IntVal({1, 2}) int y = x;
+        return () -> {
+            int l = 4;
+            @IntVal(4) int m = l;
+            // :: error: (assignment.type.incompatible)
+            @IntVal(1) int n = x;
+            return l;
+        };
+    }
+
+    IntSupplier anonymousClass() {
+        int x = 8;
+        IntSupplier s =
+                new IntSupplier() {
+                    @Override
+                    public int getAsInt() {
+                        int a = 9;
+                        @IntVal(9) int c = a;
+                        // :: error: (assignment.type.incompatible)
+                        @IntVal(8) int d = a;
+                        return a;
+                    }
+                };
+        // The anonymous class's method has been checked, and its results released, by now.
+        @IntVal(8) int y = x;
+        return s;
+    }
+
+    void localClass() {
+        class Local {
+            void m() {
+                int a = 10;
+                @IntVal(10) int c = a;
+                // :: error: (assignment.type.incompatible)
+                @IntVal(11) int d = a;
+            }
+        }
+        int x = 12;
+        @IntVal(12) int y = x;
+        new Local().m();
+    }
+
+    class Inner {
+        void m(boolean b) {
+            int x = b ? 13 : 14;
+            @IntVal({13, 14}) int y = x;
+            // :: error: (assignment.type.incompatible)
+            @IntVal(13) int z = x;
+        }
+    }
+
+    void afterInner() {
+        field = 15;
+        @IntVal(15) int y = field;
+    }
+}
@@ -350,13 +350,20 @@ public class AnnotationUtils {
      * @return an ordering over AnnotationMirrors based on their name and values
      */
     public static int compareAnnotationMirrors(AnnotationMirror a1, AnnotationMirror a2) {
+        if (a1 == a2) {
+            return 0;
+        }
         if (!AnnotationUtils.areSameByName(a1, a2)) {
             return annotationName(a1).compareTo(annotationName(a2));
         }
 
-        // The annotations have the same name, but different values, so compare values.
+        // The annotations have the same name, so compare values.
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals1 = a1.getElementValues();
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals2 = a2.getElementValues();
+        if (vals1.isEmpty() && vals2.isEmpty()) {
+            // Both annotations use the default value of every element.
+            return 0;
+        }
         Set<ExecutableElement> sortedElements =
                 new TreeSet<>(Comparator.comparing(ElementUtils::getSimpleSignature));
         sortedElements.addAll(
@@ -639,6 +646,10 @@ public class AnnotationUtils {
 
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals1 = am1.getElementValues();
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals2 = am2.getElementValues();
+        if (vals1.isEmpty() && vals2.isEmpty()) {
+            // Both annotations use the default value of every element.
+            return true;
+        }
         for (ExecutableElement meth :
                 ElementFilter.methodsIn(
                         am1.getAnnotationType().asElement().getEnclosedElements())) {
@@ -0,0 +1,112 @@
+package org.checkerframework.javacutil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A map with a maximum size that evicts its least-recently-used entry when it is full. It counts
+ * the hits, misses, and evictions of the cache, so that the size of the cache can be tuned.
+ *
+ * <p>A lookup is a call to {@link #get}; it is a hit if it returns a non-null value. Calls to
+ * {@link #containsKey} are not counted, so clients that record statistics should look up an entry
+ * by calling {@link #get} once, rather than by calling {@link #containsKey} and then {@link #get}.
+ *
+ * <p>Like {@link LinkedHashMap} with access order, this class is not thread-safe: even {@link
+ * #get} modifies the map.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @see CollectionUtils#createLRUCache
+ */
+public class LRUCache<K, V> extends LinkedHashMap<K, V> {
+
+    /** The serial version UID. */
+    private static final long serialVersionUID = 5261489276168775084L;
+
+    /** The maximum number of entries in this cache. */
+    private final int capacity;
+
+    /** The number of calls to {@link #get} that returned a non-null value. */
+    private long hits = 0;
+
+    /** The number of calls to {@link #get} that returned null. */
+    private long misses = 0;
+
+    /** The number of entries that were removed because the cache was full. */
+    private long evictions = 0;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of entries in the cache
+     */
+    public LRUCache(int capacity) {
+        super(capacity, .75F, true);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public @Nullable V get(@Nullable Object key) {
+        V result = super.get(key);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> entry) {
+        if (size() > capacity) {
+            evictions++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of calls to {@link #get} that returned a non-null value.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of calls to {@link #get} that returned null.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries that were removed because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns a one-line, human-readable summary of the size and the statistics of this cache.
+     *
+     * @return a summary of the size and the statistics of this cache
+     */
+    public String getStatistics() {
+        long lookups = hits + misses;
+        return String.format(
+                "size %d/%d, %d hits, %d misses (hit rate %.1f%%), %d evictions",
+                size(),
+                capacity,
+                hits,
+                misses,
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                evictions);
+    }
+}